@@ -0,0 +1,29 @@
+package com.raptiye.blog.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raptiye.blog.service.TagService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // Evictions issued inside a transaction are deferred until it commits,
+    // so a concurrent reader cannot re-cache data that is about to change.
+    // They only reach this instance, so the tag cloud also expires on its own
+    @Bean
+    public CacheManager cacheManager(@Value("${app.tag-cloud.ttl:30s}") Duration tagCloudTtl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(TagService.TAG_CLOUD_CACHE,
+                Caffeine.newBuilder().expireAfterWrite(tagCloudTtl).build());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
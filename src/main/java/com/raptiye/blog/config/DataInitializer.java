@@ -5,10 +5,10 @@ import com.raptiye.blog.domain.Post;
 import com.raptiye.blog.domain.Role;
 import com.raptiye.blog.domain.Tag;
 import com.raptiye.blog.domain.User;
-import com.raptiye.blog.repository.CommentRepository;
 import com.raptiye.blog.repository.PostRepository;
 import com.raptiye.blog.repository.TagRepository;
 import com.raptiye.blog.repository.UserRepository;
+import com.raptiye.blog.util.MarkdownService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -38,9 +38,9 @@ public class DataInitializer implements CommandLineRunner {
 
         private final PostRepository postRepository;
         private final TagRepository tagRepository;
-        private final CommentRepository commentRepository;
         private final UserRepository userRepository;
         private final PasswordEncoder passwordEncoder;
+        private final MarkdownService markdownService;
 
         @Value("${app.admin.password:#{null}}")
         private String adminPassword;
@@ -95,14 +95,17 @@ public class DataInitializer implements CommandLineRunner {
 
                 log.info("Initializing database with seed blog data...");
 
+                // Everything below is only persisted here and inserted at commit, as one JDBC batch per table
                 // Create tags
                 Tag javaTag = createTag("Java", "java");
                 Tag springTag = createTag("Spring Boot", "spring-boot");
                 Tag webDevTag = createTag("Web Development", "web-development");
                 Tag databaseTag = createTag("Database", "database");
                 Tag tutorialTag = createTag("Tutorial", "tutorial");
+                List<Tag> tags = tagRepository.saveAll(
+                                List.of(javaTag, springTag, webDevTag, databaseTag, tutorialTag));
 
-                log.info("Created {} tags", tagRepository.count());
+                log.info("Created {} tags", tags.size());
 
                 // Create posts
                 Post post1 = createPost(
@@ -196,7 +199,7 @@ public class DataInitializer implements CommandLineRunner {
                                 true,
                                 Arrays.asList(databaseTag, tutorialTag));
 
-                createPost(
+                Post post5 = createPost(
                                 "Spring Boot Configuration Deep Dive",
                                 "Mastering application configuration in Spring Boot",
                                 "Configuration management is crucial for modern applications. Spring Boot provides several powerful ways to configure your application.\n\n"
@@ -223,8 +226,6 @@ public class DataInitializer implements CommandLineRunner {
                                 false,
                                 Arrays.asList(javaTag, springTag));
 
-                log.info("Created {} posts", postRepository.count());
-
                 // Create comments for posts
                 createComment(post1, "John Doe", "john@example.com",
                                 "Great tutorial! Very clear and easy to follow. Looking forward to more.", true);
@@ -247,20 +248,20 @@ public class DataInitializer implements CommandLineRunner {
                 createComment(post4, "Frank Miller", "frank@example.com",
                                 "We use Flyway at our company. This guide is spot on!", true);
 
-                log.info("Created {} comments", commentRepository.count());
+                // Comments are cascaded from their posts
+                List<Post> posts = postRepository.saveAll(List.of(post1, post2, post3, post4, post5));
+                int comments = posts.stream().mapToInt(post -> post.getComments().size()).sum();
 
                 log.info("Database initialization completed successfully!");
-                log.info("Summary: {} posts, {} tags, {} comments",
-                                postRepository.count(), tagRepository.count(), commentRepository.count());
+                log.info("Summary: {} posts, {} tags, {} comments", posts.size(), tags.size(), comments);
                 log.info("Application is ready! Access it at: http://localhost:8080/api/posts");
         }
 
         private Tag createTag(String name, String slug) {
-                Tag tag = Tag.builder()
+                return Tag.builder()
                                 .name(name)
                                 .slug(slug)
                                 .build();
-                return tagRepository.save(tag);
         }
 
         private Post createPost(String title, String summary, String content,
@@ -269,16 +270,19 @@ public class DataInitializer implements CommandLineRunner {
                                 .title(title)
                                 .summary(summary)
                                 .content(content)
+                                .summaryHtml(markdownService.translateToHtml(summary))
+                                .contentHtml(markdownService.translateToHtml(content))
+                                .excerpt(markdownService.toExcerpt(content))
                                 .published(published)
                                 .build();
 
                 // Add tags
                 tags.forEach(post::addTag);
 
-                return postRepository.save(post);
+                return post;
         }
 
-        private Comment createComment(Post post, String authorName, String authorEmail,
+        private void createComment(Post post, String authorName, String authorEmail,
                         String content, boolean approved) {
                 Comment comment = Comment.builder()
                                 .authorName(authorName)
@@ -288,6 +292,9 @@ public class DataInitializer implements CommandLineRunner {
                                 .build();
 
                 post.addComment(comment);
-                return commentRepository.save(comment);
+                if (approved) {
+                        // Insertable, and the post is not inserted yet, so no increment query is needed
+                        post.setApprovedCommentCount(post.getApprovedCommentCount() + 1);
+                }
         }
 }
@@ -0,0 +1,57 @@
+package com.raptiye.blog.config.migration;
+
+import com.raptiye.blog.util.MarkdownService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Renders content_html and summary_html for posts written before V6.
+ * Markdown rendering and sanitizing live in Java, so this cannot be a SQL migration;
+ * Spring Boot registers JavaMigration beans with Flyway automatically.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class V7__BackfillRenderedPostHtml extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final MarkdownService markdownService;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        int rendered = 0;
+
+        try (Statement select = connection.createStatement();
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE posts SET content_html = ?, summary_html = ? WHERE id = ?")) {
+            select.setFetchSize(BATCH_SIZE);
+
+            try (ResultSet rows = select.executeQuery(
+                    "SELECT id, content, summary FROM posts WHERE content_html IS NULL")) {
+                while (rows.next()) {
+                    update.setString(1, markdownService.translateToHtml(rows.getString("content")));
+                    update.setString(2, markdownService.translateToHtml(rows.getString("summary")));
+                    update.setLong(3, rows.getLong("id"));
+                    update.addBatch();
+
+                    if (++rendered % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+            }
+            update.executeBatch();
+        }
+
+        log.info("Rendered HTML for {} existing posts", rendered);
+    }
+}
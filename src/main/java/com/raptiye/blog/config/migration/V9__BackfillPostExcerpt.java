@@ -0,0 +1,53 @@
+package com.raptiye.blog.config.migration;
+
+import com.raptiye.blog.util.MarkdownService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Builds the plain-text excerpt for posts written before V8 from the parsed markdown.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class V9__BackfillPostExcerpt extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final MarkdownService markdownService;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        int processed = 0;
+
+        try (Statement select = connection.createStatement();
+                PreparedStatement update = connection.prepareStatement(
+                        "UPDATE posts SET excerpt = ? WHERE id = ?")) {
+            select.setFetchSize(BATCH_SIZE);
+
+            try (ResultSet rows = select.executeQuery("SELECT id, content FROM posts WHERE excerpt IS NULL")) {
+                while (rows.next()) {
+                    update.setString(1, markdownService.toExcerpt(rows.getString("content")));
+                    update.setLong(2, rows.getLong("id"));
+                    update.addBatch();
+
+                    if (++processed % BATCH_SIZE == 0) {
+                        update.executeBatch();
+                    }
+                }
+            }
+            update.executeBatch();
+        }
+
+        log.info("Built excerpts for {} existing posts", processed);
+    }
+}
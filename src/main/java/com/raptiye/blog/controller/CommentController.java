@@ -1,15 +1,19 @@
 package com.raptiye.blog.controller;
 
+import com.raptiye.blog.dto.request.BulkCommentRequest;
 import com.raptiye.blog.dto.request.CreateCommentRequest;
+import com.raptiye.blog.dto.response.BulkCommentResponse;
 import com.raptiye.blog.dto.response.CommentResponse;
+import com.raptiye.blog.dto.response.CursorPageResponse;
+import com.raptiye.blog.service.CommentIngestionQueue;
 import com.raptiye.blog.service.CommentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 
 @RestController
 @RequestMapping("/api")
@@ -17,21 +21,22 @@ import java.util.List;
 public class CommentController {
 
     private final CommentService commentService;
+    private final ObjectProvider<CommentIngestionQueue> commentIngestionQueue;
 
     @GetMapping("/posts/{postId}/comments")
-    public ResponseEntity<List<CommentResponse>> getCommentsByPostId(
+    public ResponseEntity<CursorPageResponse<CommentResponse>> getCommentsByPostId(
             @PathVariable Long postId,
-            @RequestParam(defaultValue = "false") boolean includeAll) {
-
-        if (includeAll) {
-            return ResponseEntity.ok(commentService.getAllCommentsByPostId(postId));
-        }
-        return ResponseEntity.ok(commentService.getApprovedCommentsByPostId(postId));
+            @RequestParam(defaultValue = "false") boolean includeAll,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(commentService.getCommentsByPostId(postId, includeAll, cursor, limit));
     }
 
     @GetMapping("/comments/pending")
-    public ResponseEntity<List<CommentResponse>> getPendingComments() {
-        return ResponseEntity.ok(commentService.getPendingComments());
+    public ResponseEntity<CursorPageResponse<CommentResponse>> getPendingComments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(commentService.getPendingComments(cursor, limit));
     }
 
     @PostMapping("/posts/{postId}/comments")
@@ -39,6 +44,13 @@ public class CommentController {
             @PathVariable Long postId,
             @Valid @RequestBody CreateCommentRequest request) {
 
+        // Write-behind mode: the comment is stored shortly after the response, so there is no id to return yet
+        CommentIngestionQueue ingestionQueue = commentIngestionQueue.getIfAvailable();
+        if (ingestionQueue != null) {
+            ingestionQueue.enqueue(postId, request);
+            return ResponseEntity.accepted().build();
+        }
+
         CommentResponse created = commentService.createComment(postId, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
@@ -48,6 +60,17 @@ public class CommentController {
         return ResponseEntity.ok(commentService.approveComment(id));
     }
 
+    @PutMapping("/comments/approve")
+    public ResponseEntity<BulkCommentResponse> approveComments(@Valid @RequestBody BulkCommentRequest request) {
+        return ResponseEntity.ok(commentService.approveComments(request));
+    }
+
+    // Selection comes from query parameters, e.g. ?postId=1&createdBefore=2024-05-01T00:00:00 or ?ids=4,5,6
+    @DeleteMapping("/comments")
+    public ResponseEntity<BulkCommentResponse> deleteComments(@Valid BulkCommentRequest request) {
+        return ResponseEntity.ok(commentService.deleteComments(request));
+    }
+
     @DeleteMapping("/comments/{id}")
     public ResponseEntity<Void> deleteComment(@PathVariable Long id) {
         commentService.deleteComment(id);
@@ -0,0 +1,28 @@
+package com.raptiye.blog.controller;
+
+import com.raptiye.blog.util.ResourceVersion;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Conditional GET handling shared by the read endpoints. When this returns {@code true} the
+ * handler returns {@code null} and Spring MVC completes the 304 response.
+ */
+final class ConditionalRequests {
+
+    // Shared caches may store the response but must revalidate it on every use
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePublic().getHeaderValue();
+
+    private ConditionalRequests() {
+    }
+
+    static boolean notModified(ServletWebRequest request, ResourceVersion version) {
+        HttpServletResponse response = request.getResponse();
+        if (response != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(version.etag(), version.lastModifiedMillis());
+    }
+}
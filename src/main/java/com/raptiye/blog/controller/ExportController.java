@@ -0,0 +1,44 @@
+package com.raptiye.blog.controller;
+
+import com.raptiye.blog.service.BlogExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final BlogExportService blogExportService;
+
+    // Written on an async thread while the rows are read, so the request thread is released immediately
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "false") boolean gzip) {
+        String filename = gzip ? "blog-export.ndjson.gz" : "blog-export.ndjson";
+        StreamingResponseBody body = gzip
+                ? out -> {
+                    // Sync flush, so every flush of the export reaches the client instead of waiting in the deflater
+                    GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024, true);
+                    blogExportService.export(compressed);
+                    compressed.finish();
+                }
+                : blogExportService::export;
+
+        return ResponseEntity.ok()
+                .contentType(gzip ? GZIP : MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+}
@@ -0,0 +1,27 @@
+package com.raptiye.blog.controller;
+
+import com.raptiye.blog.dto.response.ImportResponse;
+import com.raptiye.blog.service.PostImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/import")
+@RequiredArgsConstructor
+public class ImportController {
+
+    private final PostImportService postImportService;
+
+    // The body is read as it arrives, never buffered whole
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ImportResponse> importPosts(InputStream body) throws IOException {
+        return ResponseEntity.ok(postImportService.importPosts(body));
+    }
+}
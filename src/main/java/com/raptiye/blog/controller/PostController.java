@@ -2,16 +2,23 @@ package com.raptiye.blog.controller;
 
 import com.raptiye.blog.dto.request.CreatePostRequest;
 import com.raptiye.blog.dto.request.UpdatePostRequest;
+import com.raptiye.blog.dto.response.CursorPageResponse;
 import com.raptiye.blog.dto.response.PostDetailResponse;
 import com.raptiye.blog.dto.response.PostResponse;
+import com.raptiye.blog.dto.response.PostSearchResponse;
+import com.raptiye.blog.service.ContentVersionService;
+import com.raptiye.blog.service.PostSearchService;
 import com.raptiye.blog.service.PostService;
+import com.raptiye.blog.util.ResourceVersion;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/posts")
@@ -19,36 +26,96 @@ import java.util.List;
 public class PostController {
 
     private final PostService postService;
+    private final PostSearchService postSearchService;
+    private final ContentVersionService contentVersionService;
 
     @GetMapping
-    public ResponseEntity<List<PostResponse>> getAllPosts(
-            @RequestParam(defaultValue = "true") boolean publishedOnly) {
+    public ResponseEntity<CursorPageResponse<PostResponse>> getAllPosts(
+            @RequestParam(defaultValue = "true") boolean publishedOnly,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "all") String mode,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            ServletWebRequest request) {
+
+        if (ConditionalRequests.notModified(request, contentVersionService.getCatalogVersion())) {
+            return null;
+        }
 
+        if (tags != null && !tags.isEmpty()) {
+            return ResponseEntity.ok(postService.getPublishedPostsByTags(tags, mode, cursor, limit));
+        }
         if (publishedOnly) {
-            return ResponseEntity.ok(postService.getPublishedPosts());
+            return ResponseEntity.ok(postService.getPublishedPosts(cursor, limit));
         }
-        return ResponseEntity.ok(postService.getAllPosts());
+        return ResponseEntity.ok(postService.getAllPosts(cursor, limit));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<PostSearchResponse>> searchPosts(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            ServletWebRequest request) {
+
+        if (ConditionalRequests.notModified(request, contentVersionService.getCatalogVersion())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(postSearchService.search(q, cursor, limit));
     }
 
     @GetMapping("/{slug}")
     public ResponseEntity<PostDetailResponse> getPostBySlug(
             @PathVariable String slug,
-            @RequestParam(defaultValue = "false") boolean includeAllComments) {
+            @RequestParam(defaultValue = "false") boolean includeAllComments,
+            ServletWebRequest request) {
 
+        Optional<ResourceVersion> version = contentVersionService.getPostVersion(slug, includeAllComments);
+        if (version.isPresent() && ConditionalRequests.notModified(request, version.get())) {
+            return null;
+        }
         return ResponseEntity.ok(postService.getPostBySlug(slug, includeAllComments));
     }
 
+    @GetMapping("/{slug}/related")
+    public ResponseEntity<List<PostResponse>> getRelatedPosts(
+            @PathVariable String slug,
+            @RequestParam(defaultValue = "5") int limit,
+            ServletWebRequest request) {
+
+        if (ConditionalRequests.notModified(request, contentVersionService.getCatalogVersion())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(postService.getRelatedPosts(slug, limit));
+    }
+
     @GetMapping("/id/{id}")
     public ResponseEntity<PostDetailResponse> getPostById(
             @PathVariable Long id,
-            @RequestParam(defaultValue = "false") boolean includeAllComments) {
+            @RequestParam(defaultValue = "false") boolean includeAllComments,
+            ServletWebRequest request) {
 
+        Optional<ResourceVersion> version = contentVersionService.getPostVersion(id, includeAllComments);
+        if (version.isPresent() && ConditionalRequests.notModified(request, version.get())) {
+            return null;
+        }
         return ResponseEntity.ok(postService.getPostById(id, includeAllComments));
     }
 
     @GetMapping("/tag/{tagSlug}")
-    public ResponseEntity<List<PostResponse>> getPostsByTag(@PathVariable String tagSlug) {
-        return ResponseEntity.ok(postService.getPostsByTagSlug(tagSlug));
+    public ResponseEntity<CursorPageResponse<PostResponse>> getPostsByTag(
+            @PathVariable String tagSlug,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            ServletWebRequest request) {
+
+        if (ConditionalRequests.notModified(request, contentVersionService.getCatalogVersion())) {
+            return null;
+        }
+
+        return ResponseEntity.ok(postService.getPostsByTagSlug(tagSlug, cursor, limit));
     }
 
     @PostMapping
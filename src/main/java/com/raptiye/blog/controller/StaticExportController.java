@@ -0,0 +1,24 @@
+package com.raptiye.blog.controller;
+
+import com.raptiye.blog.dto.response.StaticExportResponse;
+import com.raptiye.blog.web.StaticSiteExporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/static-export")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.static-export.enabled", havingValue = "true")
+public class StaticExportController {
+
+    private final StaticSiteExporter staticSiteExporter;
+
+    @PostMapping
+    public ResponseEntity<StaticExportResponse> export() {
+        return ResponseEntity.ok(staticSiteExporter.exportAll());
+    }
+}
@@ -2,12 +2,14 @@ package com.raptiye.blog.controller;
 
 import com.raptiye.blog.dto.request.CreateTagRequest;
 import com.raptiye.blog.dto.response.TagResponse;
+import com.raptiye.blog.service.ContentVersionService;
 import com.raptiye.blog.service.TagService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.List;
 
@@ -17,14 +19,21 @@ import java.util.List;
 public class TagController {
 
     private final TagService tagService;
+    private final ContentVersionService contentVersionService;
 
     @GetMapping
-    public ResponseEntity<List<TagResponse>> getAllTags() {
+    public ResponseEntity<List<TagResponse>> getAllTags(ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, contentVersionService.getCatalogVersion())) {
+            return null;
+        }
         return ResponseEntity.ok(tagService.getAllTags());
     }
 
     @GetMapping("/{slug}")
-    public ResponseEntity<TagResponse> getTagBySlug(@PathVariable String slug) {
+    public ResponseEntity<TagResponse> getTagBySlug(@PathVariable String slug, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, contentVersionService.getCatalogVersion())) {
+            return null;
+        }
         return ResponseEntity.ok(tagService.getTagBySlug(slug));
     }
 
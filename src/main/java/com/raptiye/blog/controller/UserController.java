@@ -0,0 +1,29 @@
+package com.raptiye.blog.controller;
+
+import com.raptiye.blog.dto.request.ChangeRoleRequest;
+import com.raptiye.blog.dto.response.UserResponse;
+import com.raptiye.blog.service.UserService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class UserController {
+
+    private final UserService userService;
+
+    @PutMapping("/{id}/role")
+    public ResponseEntity<UserResponse> changeRole(@PathVariable Long id,
+            @Valid @RequestBody ChangeRoleRequest request) {
+        return ResponseEntity.ok(userService.changeRole(id, request.getRole()));
+    }
+
+    @PostMapping("/{id}/revoke-tokens")
+    public ResponseEntity<Void> revokeTokens(@PathVariable Long id) {
+        userService.revokeTokens(id);
+        return ResponseEntity.noContent().build();
+    }
+}
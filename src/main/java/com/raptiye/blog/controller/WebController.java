@@ -1,27 +1,62 @@
 package com.raptiye.blog.controller;
 
+import com.raptiye.blog.dto.response.CursorPageResponse;
+import com.raptiye.blog.dto.response.PostDetailResponse;
+import com.raptiye.blog.dto.response.PostResponse;
+import com.raptiye.blog.service.ContentVersionService;
 import com.raptiye.blog.service.PostService;
+import com.raptiye.blog.util.ResourceVersion;
+import com.raptiye.blog.web.PageCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
 
 @Controller
 @RequiredArgsConstructor
 public class WebController {
 
     private final PostService postService;
+    private final ContentVersionService contentVersionService;
 
     @GetMapping("/")
-    public String home(Model model) {
-        model.addAttribute("posts", postService.getPublishedPosts());
+    public String home(@RequestParam(required = false) String cursor, Model model, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, contentVersionService.getCatalogVersion())) {
+            return null;
+        }
+        PageCache.dependOnAllPosts(request);
+        CursorPageResponse<PostResponse> page = postService.getPublishedPosts(cursor, 10);
+        model.addAttribute("posts", page.getContent());
+        model.addAttribute("nextCursor", page.getNextCursor());
         return "index";
     }
 
     @GetMapping("/post/{slug}")
-    public String postDetail(@PathVariable String slug, Model model) {
-        model.addAttribute("post", postService.getPostBySlug(slug, true));
+    public String postDetail(@PathVariable String slug, @RequestParam(required = false) String comments, Model model,
+            ServletWebRequest request) {
+        // The page also lists related posts, so other posts' changes must invalidate it as well
+        Optional<ResourceVersion> version = contentVersionService.getPostVersion(slug, false)
+                .map(postVersion -> postVersion.and(contentVersionService.getCatalogVersion()));
+        if (version.isPresent() && ConditionalRequests.notModified(request, version.get())) {
+            return null;
+        }
+        PostDetailResponse post = postService.getPostBySlug(slug, false, comments);
+        List<PostResponse> relatedPosts = postService.getRelatedPosts(post.getId(), 5);
+
+        List<Long> shownPostIds = new ArrayList<>();
+        shownPostIds.add(post.getId());
+        relatedPosts.forEach(related -> shownPostIds.add(related.getId()));
+        PageCache.dependOnPosts(request, shownPostIds);
+
+        model.addAttribute("post", post);
+        model.addAttribute("relatedPosts", relatedPosts);
         return "post-detail";
     }
 
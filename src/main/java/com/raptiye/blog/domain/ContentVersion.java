@@ -0,0 +1,36 @@
+package com.raptiye.blog.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The single row of shared content generations, advanced by {@code ContentVersionService}.
+ */
+@Entity
+@Table(name = "content_version")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContentVersion {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private long catalog;
+
+    @Column(name = "catalog_modified", nullable = false)
+    private LocalDateTime catalogModified;
+
+    @Column(nullable = false)
+    private long posts;
+
+    @Column(name = "posts_modified", nullable = false)
+    private LocalDateTime postsModified;
+}
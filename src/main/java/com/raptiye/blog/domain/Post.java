@@ -1,5 +1,6 @@
 package com.raptiye.blog.domain;
 
+import com.raptiye.blog.util.Slugs;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -18,7 +19,8 @@ import java.util.Set;
 public class Post extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "posts_id_seq")
+    @SequenceGenerator(name = "posts_id_seq", sequenceName = "posts_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -33,10 +35,29 @@ public class Post extends BaseEntity {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String content;
 
+    // Sanitized HTML rendered from summary/content whenever they change
+    @Column(name = "summary_html", columnDefinition = "TEXT")
+    private String summaryHtml;
+
+    @Column(name = "content_html", columnDefinition = "TEXT")
+    private String contentHtml;
+
+    @Column(length = 400)
+    private String excerpt;
+
     @Column(nullable = false)
     @Builder.Default
     private boolean published = false;
 
+    // Bumped on every update, including tag collection changes; feeds conditional GET validators
+    @Version
+    private Long version;
+
+    // Written only through PostRepository increment/decrement queries so entity saves never overwrite it
+    @Column(name = "approved_comment_count", nullable = false, updatable = false)
+    @Builder.Default
+    private int approvedCommentCount = 0;
+
     @OneToMany(mappedBy = "post", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Comment> comments = new ArrayList<>();
@@ -49,20 +70,10 @@ public class Post extends BaseEntity {
     @PrePersist
     protected void onCreate() {
         if (this.slug == null || this.slug.isEmpty()) {
-            this.slug = generateSlug(this.title);
+            this.slug = Slugs.of(this.title);
         }
     }
 
-    private String generateSlug(String text) {
-        if (text == null)
-            return "";
-        return text.toLowerCase()
-                .replaceAll("[^a-z0-9\\s-]", "")
-                .replaceAll("\\s+", "-")
-                .replaceAll("-+", "-")
-                .trim();
-    }
-
     // Helper methods for bidirectional relationship
     public void addComment(Comment comment) {
         comments.add(comment);
@@ -0,0 +1,63 @@
+package com.raptiye.blog.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+
+/**
+ * One precomputed neighbour of a post, written by {@code RelatedPostService}.
+ */
+@Entity
+@Table(name = "related_posts")
+@IdClass(RelatedPost.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RelatedPost implements Persistable<RelatedPost.Key> {
+
+    @Id
+    @Column(name = "post_id")
+    private Long postId;
+
+    @Id
+    @Column(name = "related_post_id")
+    private Long relatedPostId;
+
+    @Column(nullable = false)
+    private float score;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "post_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Post post;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "related_post_id", insertable = false, updatable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Post relatedPost;
+
+    @Override
+    public Key getId() {
+        return new Key(postId, relatedPostId);
+    }
+
+    // Rows are only ever inserted after the owner's previous rows were deleted, so skip merge's SELECT
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long postId;
+        private Long relatedPostId;
+    }
+}
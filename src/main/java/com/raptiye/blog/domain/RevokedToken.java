@@ -0,0 +1,38 @@
+package com.raptiye.blog.domain;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * An access token revoked before its expiry, identified by its {@code jti} claim.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RevokedToken implements Persistable<String> {
+
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Override
+    public String getId() {
+        return jti;
+    }
+
+    // Token ids are random UUIDs, so skip merge's SELECT
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -1,5 +1,6 @@
 package com.raptiye.blog.domain;
 
+import com.raptiye.blog.util.Slugs;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -16,7 +17,8 @@ import java.util.Set;
 public class Tag extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tags_id_seq")
+    @SequenceGenerator(name = "tags_id_seq", sequenceName = "tags_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -25,6 +27,9 @@ public class Tag extends BaseEntity {
     @Column(nullable = false, unique = true)
     private String slug;
 
+    @Version
+    private Long version;
+
     @ManyToMany(mappedBy = "tags")
     @Builder.Default
     private Set<Post> posts = new HashSet<>();
@@ -32,20 +37,10 @@ public class Tag extends BaseEntity {
     @PrePersist
     protected void onCreate() {
         if (this.slug == null || this.slug.isEmpty()) {
-            this.slug = generateSlug(this.name);
+            this.slug = Slugs.of(this.name);
         }
     }
 
-    private String generateSlug(String text) {
-        if (text == null)
-            return "";
-        return text.toLowerCase()
-                .replaceAll("[^a-z0-9\\s-]", "")
-                .replaceAll("\\s+", "-")
-                .replaceAll("-+", "-")
-                .trim();
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -0,0 +1,18 @@
+package com.raptiye.blog.dto.request;
+
+import com.raptiye.blog.domain.Role;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ChangeRoleRequest {
+
+    @NotNull(message = "Role is required")
+    private Role role;
+}
@@ -0,0 +1,39 @@
+package com.raptiye.blog.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One line of a bulk import: a post with its tags, referenced by name, and its comments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportPostRequest {
+
+    @NotBlank(message = "Title is required")
+    @Size(min = 3, max = 200, message = "Title must be between 3 and 200 characters")
+    private String title;
+
+    @Size(max = 500, message = "Summary must be at most 500 characters")
+    private String summary;
+
+    @NotBlank(message = "Content is required")
+    private String content;
+
+    private boolean published;
+
+    private Set<@NotBlank(message = "Tag name is required")
+            @Size(min = 2, max = 50, message = "Tag name must be between 2 and 50 characters") String> tags;
+
+    private List<@Valid ImportCommentRequest> comments;
+}
@@ -14,6 +14,8 @@ public class AuthResponse {
     private String token;
     @Builder.Default
     private String type = "Bearer";
+    private Long expiresIn;
+    private String refreshToken;
     private String username;
     private String email;
     private String role;
@@ -14,6 +14,7 @@ import java.time.LocalDateTime;
 public class CommentResponse {
 
     private Long id;
+    private Long postId;
     private String authorName;
     private String content;
     private boolean approved;
@@ -0,0 +1,32 @@
+package com.raptiye.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportResponse {
+
+    private long lines;
+    private long posts;
+    private long comments;
+    private long tagsCreated;
+    private long failed;
+    private List<LineError> errors; // The first failures only; failed counts all of them
+    private long durationMs;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineError {
+
+        private long line;
+        private String message;
+    }
+}
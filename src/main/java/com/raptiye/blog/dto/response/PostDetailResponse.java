@@ -18,10 +18,15 @@ public class PostDetailResponse {
     private String title;
     private String slug;
     private String summary;
+    private String summaryHtml;
     private String content;
+    private String contentHtml;
     private boolean published;
     private List<TagResponse> tags;
+    // Newest page of comments; older ones are paged from GET /api/posts/{id}/comments with nextCommentsCursor
     private List<CommentResponse> comments;
+    private long commentCount;
+    private String nextCommentsCursor;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
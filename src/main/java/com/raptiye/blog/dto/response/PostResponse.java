@@ -18,19 +18,21 @@ public class PostResponse {
     private String title;
     private String slug;
     private String summary;
+    private String summaryHtml;
     private String content;
+    private String excerpt;
     private boolean published;
     private List<TagResponse> tags;
     private int commentCount;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
-    public PostResponse(Long id, String title, String slug, String summary, String content, LocalDateTime createdAt) {
+    public PostResponse(Long id, String title, String slug, String summary, String excerpt, LocalDateTime createdAt) {
         this.id = id;
         this.title = title;
         this.slug = slug;
         this.summary = summary;
-        this.content = content; // Kısaltılmış metin buraya gelir
+        this.excerpt = excerpt;
         this.createdAt = createdAt;
     }
 }
@@ -0,0 +1,23 @@
+package com.raptiye.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PostSearchResponse {
+
+    private Long id;
+    private String title;
+    private String slug;
+    private String summary;
+    private String headline; // Escaped HTML of the matching fragments, terms wrapped in <mark>
+    private float rank;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,17 @@
+package com.raptiye.blog.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StaticExportResponse {
+
+    private int pages;
+    private long bytes;
+    private long durationMs;
+}
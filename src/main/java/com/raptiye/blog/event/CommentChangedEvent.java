@@ -0,0 +1,7 @@
+package com.raptiye.blog.event;
+
+/**
+ * Published by {@code CommentService} when a comment of a post is created, approved or deleted.
+ */
+public record CommentChangedEvent(Long postId) {
+}
@@ -0,0 +1,28 @@
+package com.raptiye.blog.event;
+
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.domain.Tag;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by {@code PostService} whenever a post is created or updated. Listeners that keep
+ * derived state in memory should react after the surrounding transaction commits.
+ * {@code publishedChanged} is set when an update flipped the published flag.
+ */
+public record PostChangedEvent(Long postId, boolean published, boolean publishedChanged, String title,
+        String summary, String content, Set<Long> tagIds) {
+
+    public static PostChangedEvent of(Post post) {
+        return of(post, false);
+    }
+
+    public static PostChangedEvent of(Post post, boolean publishedChanged) {
+        Set<Long> tagIds = post.getTags().stream()
+                .map(Tag::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        return new PostChangedEvent(post.getId(), post.isPublished(), publishedChanged, post.getTitle(),
+                post.getSummary(), post.getContent(), tagIds);
+    }
+}
@@ -0,0 +1,21 @@
+package com.raptiye.blog.event;
+
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.domain.Tag;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by {@code PostService} when a post is deleted. Carries the tags it had, since its
+ * {@code post_tags} rows are gone once the deletion commits.
+ */
+public record PostDeletedEvent(Long postId, Set<Long> tagIds) {
+
+    public static PostDeletedEvent of(Post post) {
+        Set<Long> tagIds = post.getTags().stream()
+                .map(Tag::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        return new PostDeletedEvent(post.getId(), tagIds);
+    }
+}
@@ -0,0 +1,21 @@
+package com.raptiye.blog.event;
+
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.domain.Tag;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Published by {@code PostService} when a tag is added to or removed from a post. Carries the
+ * complete tag set after the change.
+ */
+public record PostTagsChangedEvent(Long postId, Set<Long> tagIds) {
+
+    public static PostTagsChangedEvent of(Post post) {
+        Set<Long> tagIds = post.getTags().stream()
+                .map(Tag::getId)
+                .collect(Collectors.toUnmodifiableSet());
+        return new PostTagsChangedEvent(post.getId(), tagIds);
+    }
+}
@@ -0,0 +1,9 @@
+package com.raptiye.blog.event;
+
+import java.util.Set;
+
+/**
+ * Published by {@code RelatedPostService} with the posts whose precomputed neighbours were rewritten.
+ */
+public record RelatedPostsChangedEvent(Set<Long> postIds) {
+}
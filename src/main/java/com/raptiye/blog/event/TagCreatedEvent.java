@@ -0,0 +1,7 @@
+package com.raptiye.blog.event;
+
+/**
+ * Published by {@code TagService} when a tag is created.
+ */
+public record TagCreatedEvent(Long tagId) {
+}
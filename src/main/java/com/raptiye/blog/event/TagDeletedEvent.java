@@ -0,0 +1,7 @@
+package com.raptiye.blog.event;
+
+/**
+ * Published by {@code TagService} when a tag is deleted.
+ */
+public record TagDeletedEvent(Long tagId) {
+}
@@ -0,0 +1,7 @@
+package com.raptiye.blog.event;
+
+/**
+ * Published by {@code UserService} when a user's token version is bumped.
+ */
+public record UserTokensRevokedEvent(Long userId) {
+}
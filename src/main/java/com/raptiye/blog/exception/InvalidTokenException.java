@@ -0,0 +1,11 @@
+package com.raptiye.blog.exception;
+
+/**
+ * A presented refresh token is unknown, expired or already consumed.
+ */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
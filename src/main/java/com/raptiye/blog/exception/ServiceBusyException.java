@@ -0,0 +1,17 @@
+package com.raptiye.blog.exception;
+
+import lombok.Getter;
+
+/**
+ * A bounded resource is saturated; the client should retry after {@link #getRetryAfterSeconds()}.
+ */
+@Getter
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,17 @@
+package com.raptiye.blog.exception;
+
+import lombok.Getter;
+
+/**
+ * The caller exceeded an attempt limit; the client should retry after {@link #getRetryAfterSeconds()}.
+ */
+@Getter
+public class TooManyAttemptsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -14,6 +14,7 @@ public class CommentMapper {
 
         return CommentResponse.builder()
                 .id(comment.getId())
+                .postId(comment.getPost() == null ? null : comment.getPost().getId())
                 .authorName(comment.getAuthorName())
                 .content(comment.getContent())
                 .approved(comment.isApproved())
@@ -1,13 +1,19 @@
 package com.raptiye.blog.mapper;
 
 import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.domain.Tag;
+import com.raptiye.blog.dto.response.CommentResponse;
+import com.raptiye.blog.dto.response.CursorPageResponse;
 import com.raptiye.blog.dto.response.PostDetailResponse;
 import com.raptiye.blog.dto.response.PostResponse;
 import com.raptiye.blog.dto.response.TagResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Component
@@ -15,36 +21,45 @@ import java.util.stream.Collectors;
 public class PostMapper {
 
     private final TagMapper tagMapper;
-    private final CommentMapper commentMapper;
 
     public PostResponse toResponse(Post post) {
         if (post == null) {
             return null;
         }
 
-        List<TagResponse> tags = post.getTags().stream()
-                .map(tagMapper::toResponseWithoutCount)
+        return toResponse(post, post.getTags());
+    }
+
+    // For list pages: tags are loaded for the whole page up front
+    public List<PostResponse> toResponses(List<Post> posts, Map<Long, List<Tag>> tagsByPostId) {
+        return posts.stream()
+                .map(post -> toResponse(post, tagsByPostId.getOrDefault(post.getId(), Collections.emptyList())))
                 .collect(Collectors.toList());
+    }
 
-        int commentCount = (int) post.getComments().stream()
-                .filter(comment -> comment.isApproved())
-                .count();
+    private PostResponse toResponse(Post post, Collection<Tag> postTags) {
+        List<TagResponse> tags = postTags.stream()
+                .map(tagMapper::toResponseWithoutCount)
+                .collect(Collectors.toList());
 
         return PostResponse.builder()
                 .id(post.getId())
                 .title(post.getTitle())
                 .slug(post.getSlug())
                 .summary(post.getSummary())
+                .summaryHtml(post.getSummaryHtml())
                 .content(post.getContent())
+                .excerpt(post.getExcerpt())
                 .published(post.isPublished())
                 .tags(tags)
-                .commentCount(commentCount)
+                .commentCount(post.getApprovedCommentCount())
                 .createdAt(post.getCreatedAt())
                 .updatedAt(post.getUpdatedAt())
                 .build();
     }
 
-    public PostDetailResponse toDetailResponse(Post post, boolean includeUnapprovedComments) {
+    public PostDetailResponse toDetailResponse(Post post, CursorPageResponse<CommentResponse> comments,
+            long commentCount) {
         if (post == null) {
             return null;
         }
@@ -53,24 +68,19 @@ public class PostMapper {
                 .map(tagMapper::toResponseWithoutCount)
                 .collect(Collectors.toList());
 
-        var commentsStream = post.getComments().stream();
-        if (!includeUnapprovedComments) {
-            commentsStream = commentsStream.filter(comment -> comment.isApproved());
-        }
-
-        var comments = commentsStream
-                .map(commentMapper::toResponse)
-                .collect(Collectors.toList());
-
         return PostDetailResponse.builder()
                 .id(post.getId())
                 .title(post.getTitle())
                 .slug(post.getSlug())
                 .summary(post.getSummary())
+                .summaryHtml(post.getSummaryHtml())
                 .content(post.getContent())
+                .contentHtml(post.getContentHtml())
                 .published(post.isPublished())
                 .tags(tags)
-                .comments(comments)
+                .comments(comments.getContent())
+                .commentCount(commentCount)
+                .nextCommentsCursor(comments.getNextCursor())
                 .createdAt(post.getCreatedAt())
                 .updatedAt(post.getUpdatedAt())
                 .build();
@@ -7,7 +7,7 @@ import org.springframework.stereotype.Component;
 @Component
 public class TagMapper {
 
-    public TagResponse toResponse(Tag tag) {
+    public TagResponse toResponse(Tag tag, long postCount) {
         if (tag == null) {
             return null;
         }
@@ -16,7 +16,7 @@ public class TagMapper {
                 .id(tag.getId())
                 .name(tag.getName())
                 .slug(tag.getSlug())
-                .postCount(tag.getPosts() != null ? tag.getPosts().size() : 0)
+                .postCount((int) postCount)
                 .createdAt(tag.getCreatedAt())
                 .build();
     }
@@ -1,19 +1,101 @@
 package com.raptiye.blog.repository;
 
 import com.raptiye.blog.domain.Comment;
+import com.raptiye.blog.dto.response.CommentResponse;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
-    List<Comment> findByPostIdAndApprovedTrueOrderByCreatedAtDesc(Long postId);
+    // Criteria of a bulk moderation request; :ids is only consulted when :filterIds is set
+    String BULK_SELECTION = "(:filterIds = FALSE OR id IN (:ids)) " +
+            "AND (CAST(:postId AS BIGINT) IS NULL OR post_id = :postId) " +
+            "AND created_at < :createdBefore";
 
-    List<Comment> findByPostIdOrderByCreatedAtDesc(Long postId);
+    // Comments of a post, newest first, served by the (post_id, approved, created_at, id) index of V17
+    @Query("SELECT new com.raptiye.blog.dto.response.CommentResponse(" +
+            "c.id, c.post.id, c.authorName, c.content, c.approved, c.createdAt) " +
+            "FROM Comment c " +
+            "WHERE c.post.id = :postId AND c.approved = true " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponse> findApprovedByPostId(@Param("postId") Long postId, Limit limit);
 
-    List<Comment> findByApprovedFalseOrderByCreatedAtDesc();
+    @Query("SELECT new com.raptiye.blog.dto.response.CommentResponse(" +
+            "c.id, c.post.id, c.authorName, c.content, c.approved, c.createdAt) " +
+            "FROM Comment c " +
+            "WHERE c.post.id = :postId AND c.approved = true " +
+            "AND (c.createdAt, c.id) < (:createdAt, :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponse> findApprovedByPostIdBefore(@Param("postId") Long postId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    @Query("SELECT new com.raptiye.blog.dto.response.CommentResponse(" +
+            "c.id, c.post.id, c.authorName, c.content, c.approved, c.createdAt) " +
+            "FROM Comment c " +
+            "WHERE c.post.id = :postId " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponse> findByPostId(@Param("postId") Long postId, Limit limit);
+
+    @Query("SELECT new com.raptiye.blog.dto.response.CommentResponse(" +
+            "c.id, c.post.id, c.authorName, c.content, c.approved, c.createdAt) " +
+            "FROM Comment c " +
+            "WHERE c.post.id = :postId " +
+            "AND (c.createdAt, c.id) < (:createdAt, :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponse> findByPostIdBefore(@Param("postId") Long postId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // Moderation queue rows straight from the comments table; served by the partial index of V16
+    @Query("SELECT new com.raptiye.blog.dto.response.CommentResponse(" +
+            "c.id, c.post.id, c.authorName, c.content, c.approved, c.createdAt) " +
+            "FROM Comment c " +
+            "WHERE c.approved = false " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponse> findPending(Limit limit);
+
+    @Query("SELECT new com.raptiye.blog.dto.response.CommentResponse(" +
+            "c.id, c.post.id, c.authorName, c.content, c.approved, c.createdAt) " +
+            "FROM Comment c " +
+            "WHERE c.approved = false " +
+            "AND (c.createdAt, c.id) < (:createdAt, :id) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<CommentResponse> findPendingBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+            Limit limit);
 
     long countByPostIdAndApprovedTrue(Long postId);
+
+    long countByPostId(Long postId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Comment c WHERE c.id = :id")
+    Optional<Comment> findByIdForUpdate(@Param("id") Long id);
+
+    // Returns 0 when the comment was already approved, so the post counter is only bumped once
+    @Modifying
+    @Query("UPDATE Comment c SET c.approved = true WHERE c.id = :id AND c.approved = false")
+    int approveIfPending(@Param("id") Long id);
+
+    // Bulk moderation returns the post id of every changed row from the statement itself, so a
+    // comment committed while it runs cannot change without its post being recounted
+    @Query(value = "UPDATE comments SET approved = TRUE, updated_at = LOCALTIMESTAMP " +
+            "WHERE approved = FALSE AND " + BULK_SELECTION + " RETURNING post_id",
+            nativeQuery = true)
+    List<Long> approvePendingInSelection(@Param("filterIds") boolean filterIds, @Param("ids") Collection<Long> ids,
+            @Param("postId") Long postId, @Param("createdBefore") LocalDateTime createdBefore);
+
+    @Query(value = "DELETE FROM comments WHERE " + BULK_SELECTION + " RETURNING post_id", nativeQuery = true)
+    List<Long> deleteSelection(@Param("filterIds") boolean filterIds, @Param("ids") Collection<Long> ids,
+            @Param("postId") Long postId, @Param("createdBefore") LocalDateTime createdBefore);
 }
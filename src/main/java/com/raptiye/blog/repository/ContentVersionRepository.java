@@ -0,0 +1,24 @@
+package com.raptiye.blog.repository;
+
+import com.raptiye.blog.domain.ContentVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ContentVersionRepository extends JpaRepository<ContentVersion, Integer> {
+
+    @Modifying
+    @Query("UPDATE ContentVersion v SET v.catalog = v.catalog + 1, v.catalogModified = :now " +
+            "WHERE v.id = " + ContentVersion.ID)
+    int advanceCatalog(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ContentVersion v SET v.catalog = v.catalog + 1, v.catalogModified = :now, " +
+            "v.posts = v.posts + 1, v.postsModified = :now WHERE v.id = " + ContentVersion.ID)
+    int advanceCatalogAndPosts(@Param("now") LocalDateTime now);
+}
@@ -1,36 +1,217 @@
 package com.raptiye.blog.repository;
 
 import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.domain.Tag;
 import com.raptiye.blog.dto.response.PostResponse;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
 
-    List<Post> findByPublishedTrueOrderByCreatedAtDesc();
+    List<Post> findByPublishedTrueOrderByCreatedAtDescIdDesc(Limit limit);
 
-    List<Post> findAllByOrderByCreatedAtDesc();
+    long countByPublishedTrue();
+
+    @Query("SELECT p FROM Post p " +
+            "WHERE p.published = true " +
+            "AND (p.createdAt, p.id) < (:createdAt, :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findPublishedBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    List<Post> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    @Query("SELECT p FROM Post p " +
+            "WHERE (p.createdAt, p.id) < (:createdAt, :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findAllBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
 
     Optional<Post> findBySlug(String slug);
 
-    @Query("SELECT p FROM Post p JOIN p.tags t WHERE t.slug = :tagSlug AND p.published = true ORDER BY p.createdAt DESC")
-    List<Post> findByTagSlug(@Param("tagSlug") String tagSlug);
+    @Query("SELECT p FROM Post p JOIN p.tags t WHERE t.slug = :tagSlug AND p.published = true " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findByTagSlug(@Param("tagSlug") String tagSlug, Limit limit);
+
+    @Query("SELECT p FROM Post p JOIN p.tags t WHERE t.slug = :tagSlug AND p.published = true " +
+            "AND (p.createdAt, p.id) < (:createdAt, :id) " +
+            "ORDER BY p.createdAt DESC, p.id DESC")
+    List<Post> findByTagSlugBefore(@Param("tagSlug") String tagSlug, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Limit limit);
 
     boolean existsBySlug(String slug);
 
+    @Query("SELECT p.slug FROM Post p WHERE p.slug IN :slugs")
+    List<String> findSlugsIn(@Param("slugs") Collection<String> slugs);
+
+    @Query("SELECT p.id AS postId, t AS tag FROM Post p JOIN p.tags t WHERE p.id IN :postIds")
+    List<PostTag> findTagsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.approvedCommentCount = p.approvedCommentCount + 1 WHERE p.id = :postId")
+    int incrementApprovedCommentCount(@Param("postId") Long postId);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.approvedCommentCount = p.approvedCommentCount - 1 " +
+            "WHERE p.id = :postId AND p.approvedCommentCount > 0")
+    int decrementApprovedCommentCount(@Param("postId") Long postId);
+
+    // Row locks in id order; bulk moderation takes them after the comment rows, as approve and delete do
+    @Query(value = "SELECT id FROM posts WHERE id IN (:postIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockByIds(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.approvedCommentCount = " +
+            "(SELECT COUNT(c) FROM Comment c WHERE c.post = p AND c.approved = true) " +
+            "WHERE p.id IN :postIds")
+    int recountApprovedComments(@Param("postIds") Collection<Long> postIds);
+
     @Query("SELECT new com.raptiye.blog.dto.response.PostResponse(" +
-            "p.id, p.title, p.slug, p.summary, " +
-            "SUBSTRING(p.content, 1, :snippetLength), " +
-            "p.createdAt) " +
+            "p.id, p.title, p.slug, p.summary, p.excerpt, p.createdAt) " +
             "FROM Post p " +
             "WHERE p.published = TRUE " +
             "ORDER BY p.createdAt DESC")
-    List<PostResponse> findPublishedPostResponsesWithSnippet(@Param("snippetLength") int snippetLength);
+    List<PostResponse> findPublishedPostExcerpts();
+
+    // PostgreSQL full-text search over the generated search_vector column (see V10).
+    // Headlines are only computed for the rows of the requested page. The content is raw markdown that may hold
+    // HTML, so matches are delimited with control characters (stripped from the input first) and the fragments
+    // are escaped by PostgresSearchEngine before <mark> tags are put in their place.
+    @Query(value = "WITH matches AS (" +
+            "  SELECT p.id, p.title, p.slug, p.summary, p.content, p.created_at, " +
+            "         ts_rank_cd(p.search_vector, query) AS rank, query " +
+            "  FROM posts p, websearch_to_tsquery('english', :q) query " +
+            "  WHERE p.published = TRUE AND p.search_vector @@ query" +
+            "), page AS (" +
+            "  SELECT * FROM matches " +
+            "  WHERE rank < :afterRank OR (rank = :afterRank AND id < :afterId) " +
+            "  ORDER BY rank DESC, id DESC " +
+            "  LIMIT :limit" +
+            ") " +
+            "SELECT id, title, slug, summary, created_at AS createdAt, rank, " +
+            "       ts_headline('english', translate(content, chr(1) || chr(2), ''), query, " +
+            "                   'StartSel=' || chr(1) || ', StopSel=' || chr(2) || " +
+            "                   ', MaxFragments=2, MaxWords=30, MinWords=10') AS headline " +
+            "FROM page " +
+            "ORDER BY rank DESC, id DESC",
+            nativeQuery = true)
+    List<SearchHit> searchPublished(@Param("q") String query, @Param("afterRank") float afterRank,
+            @Param("afterId") long afterId, @Param("limit") int limit);
+
+    // Feeds the in-memory search index; a projection keeps the persistence context empty
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p.id AS id, p.title AS title, p.summary AS summary, p.content AS content " +
+            "FROM Post p WHERE p.published = true")
+    Stream<IndexSource> streamPublishedForIndex();
+
+    @Query("SELECT p.slug FROM Post p WHERE p.published = true ORDER BY p.id")
+    List<String> findPublishedSlugs();
+
+    // Both feed the tag bitmap index on startup
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id FROM Post p WHERE p.published = true")
+    Stream<Long> streamPublishedIds();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS postId, t.id AS tagId FROM Post p JOIN p.tags t")
+    Stream<PostTagId> streamPostTagIds();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT p.id AS postId, t.id AS tagId FROM Post p JOIN p.tags t WHERE p.published = true")
+    Stream<PostTagId> streamPublishedPostTagIds();
+
+    // Tag expression of the bitmap index evaluated in the database; empty id lists must be passed as a placeholder
+    @Query("SELECT p.id FROM Post p WHERE p.published = true AND p.id < :beforeId " +
+            "AND (:matchAny = false OR EXISTS (SELECT t.id FROM Post tp JOIN tp.tags t " +
+            "WHERE tp = p AND t.id IN :included)) " +
+            "AND (:matchAll = false OR (SELECT COUNT(t) FROM Post tp JOIN tp.tags t " +
+            "WHERE tp = p AND t.id IN :included) = :includedCount) " +
+            "AND NOT EXISTS (SELECT t.id FROM Post tp JOIN tp.tags t WHERE tp = p AND t.id IN :excluded) " +
+            "ORDER BY p.id DESC")
+    List<Long> findPublishedIdsByTags(@Param("matchAny") boolean matchAny, @Param("matchAll") boolean matchAll,
+            @Param("included") Collection<Long> included, @Param("includedCount") long includedCount,
+            @Param("excluded") Collection<Long> excluded, @Param("beforeId") long beforeId, Limit limit);
+
+    @Query("SELECT p.id AS postId, t.id AS tagId FROM Post p JOIN p.tags t WHERE p.id IN :postIds")
+    List<PostTagId> findTagIdsByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    // Complete tag sets of every published post carrying at least one of the given tags
+    @Query("SELECT p.id AS postId, t.id AS tagId FROM Post p JOIN p.tags t WHERE p.published = true " +
+            "AND p.id IN (SELECT p2.id FROM Post p2 JOIN p2.tags t2 WHERE t2.id IN :tagIds)")
+    List<PostTagId> findTagIdsOfPublishedPostsTaggedWith(@Param("tagIds") Collection<Long> tagIds);
+
+    // Validators for conditional GETs; reads only the post row
+    @Query("SELECT p.id AS id, p.version AS version, p.updatedAt AS updatedAt, " +
+            "p.approvedCommentCount AS approvedCommentCount " +
+            "FROM Post p WHERE p.slug = :slug")
+    Optional<PostVersion> findVersionBySlug(@Param("slug") String slug);
+
+    @Query("SELECT p.id AS id, p.version AS version, p.updatedAt AS updatedAt, " +
+            "p.approvedCommentCount AS approvedCommentCount " +
+            "FROM Post p WHERE p.id = :id")
+    Optional<PostVersion> findVersionById(@Param("id") Long id);
+
+    interface PostTag {
+        Long getPostId();
+
+        Tag getTag();
+    }
+
+    interface SearchHit {
+        Long getId();
+
+        String getTitle();
+
+        String getSlug();
+
+        String getSummary();
+
+        LocalDateTime getCreatedAt();
+
+        float getRank();
+
+        String getHeadline();
+    }
+
+    interface PostTagId {
+        Long getPostId();
+
+        Long getTagId();
+    }
+
+    interface IndexSource {
+        Long getId();
+
+        String getTitle();
+
+        String getSummary();
+
+        String getContent();
+    }
+
+    interface PostVersion {
+        Long getId();
+
+        Long getVersion();
+
+        LocalDateTime getUpdatedAt();
+
+        int getApprovedCommentCount();
+    }
 }
@@ -0,0 +1,34 @@
+package com.raptiye.blog.repository;
+
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.domain.RelatedPost;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RelatedPostRepository extends JpaRepository<RelatedPost, RelatedPost.Key> {
+
+    // Primary key prefix scan; neighbours are stored already ranked
+    @Query("SELECT p FROM RelatedPost r JOIN r.relatedPost p " +
+            "WHERE r.postId = :postId AND p.published = true " +
+            "ORDER BY r.score DESC, p.id DESC")
+    List<Post> findPublishedRelatedPosts(@Param("postId") Long postId, Limit limit);
+
+    @Query("SELECT r.postId FROM RelatedPost r WHERE r.relatedPostId IN :postIds")
+    List<Long> findPostIdsRelatedTo(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("DELETE FROM RelatedPost r WHERE r.postId IN :postIds")
+    int deleteByPostIds(@Param("postIds") Collection<Long> postIds);
+
+    @Modifying
+    @Query("DELETE FROM RelatedPost r")
+    int deleteAllRows();
+}
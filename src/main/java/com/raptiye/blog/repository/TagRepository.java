@@ -2,8 +2,12 @@ package com.raptiye.blog.repository;
 
 import com.raptiye.blog.domain.Tag;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -13,7 +17,34 @@ public interface TagRepository extends JpaRepository<Tag, Long> {
 
     Optional<Tag> findByName(String name);
 
+    List<Tag> findBySlugIn(Collection<String> slugs);
+
     boolean existsBySlug(String slug);
 
     boolean existsByName(String name);
+
+    @Query("SELECT t AS tag, COUNT(p.id) AS postCount FROM Tag t " +
+            "LEFT JOIN t.posts p ON p.published = true " +
+            "GROUP BY t " +
+            "ORDER BY t.name")
+    List<TagPostCount> findAllWithPublishedPostCount();
+
+    @Query("SELECT COUNT(p) FROM Tag t JOIN t.posts p WHERE t.id = :tagId AND p.published = true")
+    long countPublishedPostsByTagId(@Param("tagId") Long tagId);
+
+    @Query("SELECT t.id AS tagId, COUNT(p.id) AS postCount FROM Tag t JOIN t.posts p " +
+            "WHERE p.published = true GROUP BY t.id")
+    List<TagUsage> findPublishedPostCountsByTag();
+
+    interface TagUsage {
+        Long getTagId();
+
+        long getPostCount();
+    }
+
+    interface TagPostCount {
+        Tag getTag();
+
+        long getPostCount();
+    }
 }
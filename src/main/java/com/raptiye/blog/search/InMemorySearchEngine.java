@@ -0,0 +1,183 @@
+package com.raptiye.blog.search;
+
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.dto.response.PostSearchResponse;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.repository.PostRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * BM25 search over an {@link InvertedIndex} held in the JVM, for single-node deployments and for
+ * profiles without PostgreSQL full-text search. The index is built from the database on startup
+ * and then kept current from post change events once their transaction commits.
+ *
+ * <p>A rebuild fills a fresh index while searches keep using the current one. Events arriving
+ * meanwhile are applied to the current index and recorded, then replayed onto the fresh index
+ * before it is swapped in, so none of them is lost whichever side of the database read they fall on.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "memory")
+public class InMemorySearchEngine implements PostSearchEngine {
+
+    // Approximates field boosts by counting a title term as three content occurrences
+    static final int TITLE_WEIGHT = 3;
+    static final int SUMMARY_WEIGHT = 2;
+    static final int CONTENT_WEIGHT = 1;
+
+    private final PostRepository postRepository;
+    private volatile InvertedIndex index = new InvertedIndex();
+
+    // Guards the swap and the recording of events during a rebuild; not a monitor, as in InvertedIndex
+    private final ReentrantLock updates = new ReentrantLock();
+    private final ReentrantLock rebuilding = new ReentrantLock();
+    // Latest terms per post changed while a rebuild reads the database, null once unpublished or deleted
+    private Map<Long, Map<String, Integer>> changedDuringRebuild;
+
+    public InMemorySearchEngine(PostRepository postRepository, MeterRegistry meterRegistry) {
+        this.postRepository = postRepository;
+        Gauge.builder("search.index.documents", this, engine -> engine.index.size())
+                .description("Published posts held in the in-memory search index")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        rebuilding.lock();
+        try {
+            long started = System.nanoTime();
+            updates.lock();
+            try {
+                changedDuringRebuild = new HashMap<>();
+            } finally {
+                updates.unlock();
+            }
+
+            InvertedIndex fresh = new InvertedIndex();
+            try (Stream<PostRepository.IndexSource> posts = postRepository.streamPublishedForIndex()) {
+                posts.forEach(post -> fresh.put(post.getId(),
+                        termFrequencies(post.getTitle(), post.getSummary(), post.getContent())));
+            } catch (RuntimeException e) {
+                swapIn(null);
+                throw e;
+            }
+            swapIn(fresh);
+            log.info("Indexed {} published posts for search in {} ms",
+                    fresh.size(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        update(event.postId(), event.published()
+                ? termFrequencies(event.title(), event.summary(), event.content())
+                : null);
+    }
+
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        update(event.postId(), null);
+    }
+
+    @Override
+    public List<PostSearchResponse> search(String query, float afterRank, long afterId, int limit) {
+        List<InvertedIndex.ScoredDoc> hits = index.search(Tokenizer.tokenize(query), afterRank, afterId, limit);
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = hits.stream().map(InvertedIndex.ScoredDoc::docId).collect(Collectors.toList());
+        Map<Long, Post> postsById = postRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+
+        List<PostSearchResponse> results = new ArrayList<>(hits.size());
+        for (InvertedIndex.ScoredDoc hit : hits) {
+            Post post = postsById.get(hit.docId());
+            // A post deleted after the index was read is simply skipped
+            if (post == null) {
+                continue;
+            }
+            results.add(PostSearchResponse.builder()
+                    .id(post.getId())
+                    .title(post.getTitle())
+                    .slug(post.getSlug())
+                    .summary(post.getSummary())
+                    // Headlines are HTML; the excerpt is plain text
+                    .headline(HtmlUtils.htmlEscape(post.getExcerpt() == null ? "" : post.getExcerpt()))
+                    .rank(hit.score())
+                    .createdAt(post.getCreatedAt())
+                    .build());
+        }
+        return results;
+    }
+
+    // Replays the changes recorded during the rebuild and makes fresh current; null abandons the rebuild
+    private void swapIn(InvertedIndex fresh) {
+        updates.lock();
+        try {
+            if (fresh != null) {
+                changedDuringRebuild.forEach((postId, terms) -> apply(fresh, postId, terms));
+                index = fresh;
+            }
+            changedDuringRebuild = null;
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    private void update(Long postId, Map<String, Integer> terms) {
+        updates.lock();
+        try {
+            apply(index, postId, terms);
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.put(postId, terms);
+            }
+        } finally {
+            updates.unlock();
+        }
+    }
+
+    private static void apply(InvertedIndex target, Long postId, Map<String, Integer> terms) {
+        if (terms == null) {
+            target.remove(postId);
+        } else {
+            target.put(postId, terms);
+        }
+    }
+
+    static Map<String, Integer> termFrequencies(String title, String summary, String content) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addTerms(frequencies, title, TITLE_WEIGHT);
+        addTerms(frequencies, summary, SUMMARY_WEIGHT);
+        addTerms(frequencies, content, CONTENT_WEIGHT);
+        return frequencies;
+    }
+
+    private static void addTerms(Map<String, Integer> frequencies, String text, int weight) {
+        for (String token : Tokenizer.tokenize(text)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,325 @@
+package com.raptiye.blog.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Thread-safe in-memory inverted index scored with Okapi BM25.
+ * <p>
+ * Every indexed document gets a dense, monotonically increasing ordinal, so postings lists are
+ * append-only and stored as variable-byte encoded {@code (ordinal delta, term frequency)} pairs.
+ * Replacing or removing a document only tombstones its ordinal; the index compacts itself once
+ * tombstones outnumber live documents.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int MIN_TOMBSTONES_BEFORE_COMPACTION = 1024;
+
+    private static final Comparator<ScoredDoc> WORST_FIRST = Comparator
+            .comparingDouble(ScoredDoc::score)
+            .thenComparingLong(ScoredDoc::docId);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+    private final Map<Long, Integer> ordinalsByDocId = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+
+    private long[] docIds = new long[256];
+    private int[] docLengths = new int[256];
+    private String[][] docTerms = new String[256][];
+    private int nextOrdinal;
+    private int liveDocs;
+    private long totalLength;
+
+    public record ScoredDoc(long docId, float score) {
+    }
+
+    /**
+     * Indexes a document, replacing any previous version with the same id.
+     */
+    public void put(long docId, Map<String, Integer> termFrequencies) {
+        lock.writeLock().lock();
+        try {
+            Integer previous = ordinalsByDocId.remove(docId);
+            if (previous != null) {
+                tombstone(previous);
+            }
+            if (!termFrequencies.isEmpty()) {
+                append(docId, termFrequencies);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalsByDocId.remove(docId);
+            if (ordinal != null) {
+                tombstone(ordinal);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            ordinalsByDocId.clear();
+            deleted.clear();
+            Arrays.fill(docTerms, null);
+            nextOrdinal = 0;
+            liveDocs = 0;
+            totalLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} documents ordered by {@code (score DESC, docId DESC)} that sort
+     * strictly after the {@code (afterScore, afterDocId)} position.
+     */
+    public List<ScoredDoc> search(Collection<String> terms, float afterScore, long afterDocId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (liveDocs == 0 || terms.isEmpty()) {
+                return List.of();
+            }
+
+            float averageLength = (float) totalLength / liveDocs;
+            float[] scores = new float[nextOrdinal];
+            int[] touched = new int[64];
+            int touchedCount = 0;
+
+            for (String term : new LinkedHashSet<>(terms)) {
+                Postings postings = postingsByTerm.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveDocs - postings.docFreq + 0.5) / (postings.docFreq + 0.5));
+
+                PostingsReader reader = postings.reader();
+                while (reader.next()) {
+                    int ordinal = reader.ordinal;
+                    if (deleted.get(ordinal)) {
+                        continue;
+                    }
+                    float tf = reader.frequency;
+                    float norm = K1 * (1 - B + B * docLengths[ordinal] / averageLength);
+                    if (scores[ordinal] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = ordinal;
+                    }
+                    scores[ordinal] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+            for (int i = 0; i < touchedCount; i++) {
+                int ordinal = touched[i];
+                float score = scores[ordinal];
+                long docId = docIds[ordinal];
+                if (score > afterScore || (score == afterScore && docId >= afterDocId)) {
+                    continue;
+                }
+                if (top.size() == limit && !ranksAbove(score, docId, top.peek())) {
+                    continue;
+                }
+                top.add(new ScoredDoc(docId, score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+
+            List<ScoredDoc> results = new ArrayList<>(top);
+            results.sort(WORST_FIRST.reversed());
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean ranksAbove(float score, long docId, ScoredDoc other) {
+        return score > other.score() || (score == other.score() && docId > other.docId());
+    }
+
+    private void append(long docId, Map<String, Integer> termFrequencies) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == docIds.length) {
+            int capacity = ordinal * 2;
+            docIds = Arrays.copyOf(docIds, capacity);
+            docLengths = Arrays.copyOf(docLengths, capacity);
+            docTerms = Arrays.copyOf(docTerms, capacity);
+        }
+
+        int length = 0;
+        String[] terms = new String[termFrequencies.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+            String term = entry.getKey();
+            int frequency = entry.getValue();
+            postingsByTerm.computeIfAbsent(term, t -> new Postings()).add(ordinal, frequency);
+            terms[i++] = term;
+            length += frequency;
+        }
+
+        docIds[ordinal] = docId;
+        docLengths[ordinal] = length;
+        docTerms[ordinal] = terms;
+        ordinalsByDocId.put(docId, ordinal);
+        liveDocs++;
+        totalLength += length;
+    }
+
+    private void tombstone(int ordinal) {
+        for (String term : docTerms[ordinal]) {
+            postingsByTerm.get(term).docFreq--;
+        }
+        docTerms[ordinal] = null;
+        deleted.set(ordinal);
+        liveDocs--;
+        totalLength -= docLengths[ordinal];
+    }
+
+    private void compactIfNeeded() {
+        int tombstones = nextOrdinal - liveDocs;
+        if (tombstones >= MIN_TOMBSTONES_BEFORE_COMPACTION && tombstones > liveDocs) {
+            compact();
+        }
+    }
+
+    // Renumbers live documents in their original order, so rewritten postings stay sorted
+    private void compact() {
+        int[] remapped = new int[nextOrdinal];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (deleted.get(ordinal)) {
+                remapped[ordinal] = -1;
+                continue;
+            }
+            remapped[ordinal] = live;
+            docIds[live] = docIds[ordinal];
+            docLengths[live] = docLengths[ordinal];
+            docTerms[live] = docTerms[ordinal];
+            ordinalsByDocId.put(docIds[live], live);
+            live++;
+        }
+        Arrays.fill(docTerms, live, nextOrdinal, null);
+
+        Iterator<Map.Entry<String, Postings>> entries = postingsByTerm.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, Postings> entry = entries.next();
+            Postings rewritten = new Postings();
+            PostingsReader reader = entry.getValue().reader();
+            while (reader.next()) {
+                int ordinal = remapped[reader.ordinal];
+                if (ordinal >= 0) {
+                    rewritten.add(ordinal, reader.frequency);
+                }
+            }
+            if (rewritten.docFreq == 0) {
+                entries.remove();
+            } else {
+                entry.setValue(rewritten);
+            }
+        }
+
+        deleted.clear();
+        nextOrdinal = live;
+    }
+
+    private static final class Postings {
+
+        private byte[] data = new byte[8];
+        private int length;
+        private int lastOrdinal;
+        private int docFreq;
+
+        void add(int ordinal, int frequency) {
+            writeVarInt(ordinal - lastOrdinal);
+            writeVarInt(frequency);
+            lastOrdinal = ordinal;
+            docFreq++;
+        }
+
+        PostingsReader reader() {
+            return new PostingsReader(data, length);
+        }
+
+        private void writeVarInt(int value) {
+            if (length + 5 > data.length) {
+                data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+            }
+            while ((value & ~0x7F) != 0) {
+                data[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[length++] = (byte) value;
+        }
+    }
+
+    private static final class PostingsReader {
+
+        private final byte[] data;
+        private final int length;
+        private int position;
+        private int ordinal;
+        private int frequency;
+
+        PostingsReader(byte[] data, int length) {
+            this.data = data;
+            this.length = length;
+        }
+
+        boolean next() {
+            if (position >= length) {
+                return false;
+            }
+            ordinal += readVarInt();
+            frequency = readVarInt();
+            return true;
+        }
+
+        private int readVarInt() {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+    }
+}
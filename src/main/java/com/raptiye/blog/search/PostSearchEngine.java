@@ -0,0 +1,18 @@
+package com.raptiye.blog.search;
+
+import com.raptiye.blog.dto.response.PostSearchResponse;
+
+import java.util.List;
+
+/**
+ * Ranks published posts for a free-text query. The implementation is selected with
+ * {@code app.search.engine} ({@code postgres} or {@code memory}).
+ */
+public interface PostSearchEngine {
+
+    /**
+     * Returns up to {@code limit} hits ordered by {@code (rank DESC, id DESC)} that sort strictly
+     * after the {@code (afterRank, afterId)} position.
+     */
+    List<PostSearchResponse> search(String query, float afterRank, long afterId, int limit);
+}
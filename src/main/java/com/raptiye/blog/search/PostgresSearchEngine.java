@@ -0,0 +1,52 @@
+package com.raptiye.blog.search;
+
+import com.raptiye.blog.dto.response.PostSearchResponse;
+import com.raptiye.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.search.engine", havingValue = "postgres", matchIfMissing = true)
+public class PostgresSearchEngine implements PostSearchEngine {
+
+    // Match delimiters emitted by ts_headline in PostRepository#searchPublished
+    static final char START_SEL = '\u0001';
+    static final char STOP_SEL = '\u0002';
+
+    private final PostRepository postRepository;
+
+    @Override
+    public List<PostSearchResponse> search(String query, float afterRank, long afterId, int limit) {
+        return postRepository.searchPublished(query, afterRank, afterId, limit).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    private PostSearchResponse toResponse(PostRepository.SearchHit hit) {
+        return PostSearchResponse.builder()
+                .id(hit.getId())
+                .title(hit.getTitle())
+                .slug(hit.getSlug())
+                .summary(hit.getSummary())
+                .headline(toHtml(hit.getHeadline()))
+                .rank(hit.getRank())
+                .createdAt(hit.getCreatedAt())
+                .build();
+    }
+
+    // Fragments are cut from raw markdown, so everything is escaped and only the match delimiters become markup
+    static String toHtml(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(String.valueOf(START_SEL), "<mark>")
+                .replace(String.valueOf(STOP_SEL), "</mark>");
+    }
+}
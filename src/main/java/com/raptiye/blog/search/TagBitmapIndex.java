@@ -0,0 +1,216 @@
+package com.raptiye.blog.search;
+
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.PostTagsChangedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
+import com.raptiye.blog.repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Compressed bitmaps of post ids per tag plus one of published posts, so tag expressions are
+ * answered without touching {@code post_tags}. Built on startup and kept current from post and
+ * tag events after their transaction commits.
+ *
+ * <p>The bitmaps hold 32-bit values. Once a post id no longer fits, the index switches itself off
+ * for the rest of the run and the same expression is evaluated in the database instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagBitmapIndex {
+
+    private final PostRepository postRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, RoaringBitmap> postsByTagId = new HashMap<>();
+    private final RoaringBitmap published = new RoaringBitmap();
+    private boolean enabled = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postsByTagId.clear();
+            published.clear();
+            enabled = true;
+            try (Stream<Long> ids = postRepository.streamPublishedIds()) {
+                ids.filter(this::indexable).forEach(id -> published.add(id.intValue()));
+            }
+            try (Stream<PostRepository.PostTagId> rows = postRepository.streamPostTagIds()) {
+                rows.filter(row -> indexable(row.getPostId())).forEach(row -> postsByTagId
+                        .computeIfAbsent(row.getTagId(), tagId -> new RoaringBitmap())
+                        .add(row.getPostId().intValue()));
+            }
+            if (!enabled) {
+                return;
+            }
+            postsByTagId.values().forEach(RoaringBitmap::runOptimize);
+            log.info("Built tag bitmaps for {} tags and {} published posts",
+                    postsByTagId.size(), published.getCardinality());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!indexable(event.postId())) {
+                return;
+            }
+            int postId = event.postId().intValue();
+            if (event.published()) {
+                published.add(postId);
+            } else {
+                published.remove(postId);
+            }
+            replaceTags(postId, event.tagIds());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostTagsChanged(PostTagsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (indexable(event.postId())) {
+                replaceTags(event.postId().intValue(), event.tagIds());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (indexable(event.postId())) {
+                int postId = event.postId().intValue();
+                published.remove(postId);
+                replaceTags(postId, List.of());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTagDeleted(TagDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            postsByTagId.remove(event.tagId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Evaluates {@code published AND (included tags combined with AND or OR) AND NOT excluded tags}
+     * and returns up to {@code limit} matching post ids below {@code beforeId}, highest first.
+     */
+    public List<Long> findPublishedPostIds(Collection<Long> includedTagIds, Collection<Long> excludedTagIds,
+            boolean matchAll, long beforeId, int limit) {
+        lock.readLock().lock();
+        try {
+            if (enabled) {
+                return evaluate(includedTagIds, excludedTagIds, matchAll, beforeId, limit);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Set<Long> included = new HashSet<>(includedTagIds);
+        return postRepository.findPublishedIdsByTags(!included.isEmpty() && !matchAll, !included.isEmpty() && matchAll,
+                orPlaceholder(included), included.size(), orPlaceholder(excludedTagIds), beforeId, Limit.of(limit));
+    }
+
+    private List<Long> evaluate(Collection<Long> includedTagIds, Collection<Long> excludedTagIds, boolean matchAll,
+            long beforeId, int limit) {
+        RoaringBitmap result = published.clone();
+        if (!includedTagIds.isEmpty()) {
+            RoaringBitmap tags = null;
+            for (Long tagId : includedTagIds) {
+                RoaringBitmap posts = postsByTagId.getOrDefault(tagId, new RoaringBitmap());
+                if (tags == null) {
+                    tags = posts.clone();
+                } else if (matchAll) {
+                    tags.and(posts);
+                } else {
+                    tags.or(posts);
+                }
+            }
+            result.and(tags);
+        }
+        for (Long tagId : excludedTagIds) {
+            RoaringBitmap posts = postsByTagId.get(tagId);
+            if (posts != null) {
+                result.andNot(posts);
+            }
+        }
+        if (beforeId <= Integer.MAX_VALUE) {
+            result.remove(Math.max(beforeId, 0), 1L << 32);
+        }
+
+        List<Long> ids = new ArrayList<>(Math.min(limit, result.getCardinality()));
+        IntIterator descending = result.getReverseIntIterator();
+        while (descending.hasNext() && ids.size() < limit) {
+            ids.add(Integer.toUnsignedLong(descending.next()));
+        }
+        return ids;
+    }
+
+    private void replaceTags(int postId, Collection<Long> tagIds) {
+        postsByTagId.forEach((tagId, posts) -> {
+            if (!tagIds.contains(tagId)) {
+                posts.remove(postId);
+            }
+        });
+        for (Long tagId : tagIds) {
+            postsByTagId.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(postId);
+        }
+    }
+
+    // Called under the write lock; the first id that does not fit switches the index off
+    private boolean indexable(Long postId) {
+        if (!enabled) {
+            return false;
+        }
+        if (postId <= Integer.MAX_VALUE) {
+            return true;
+        }
+        log.warn("Post id {} does not fit the tag bitmaps; tag filters are answered from the database", postId);
+        enabled = false;
+        postsByTagId.clear();
+        published.clear();
+        return false;
+    }
+
+    // IN lists must not be empty; no tag has id 0
+    private static Collection<Long> orPlaceholder(Collection<Long> tagIds) {
+        return tagIds.isEmpty() ? List.of(0L) : tagIds;
+    }
+}
@@ -0,0 +1,121 @@
+package com.raptiye.blog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.raptiye.blog.exception.TooManyAttemptsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Fixed-window attempt limits checked before any password is hashed: every login or registration
+ * counts against the client IP, and failed logins count against the username. Windows start at the
+ * first attempt and are bounded in number, so address spraying cannot grow memory without limit.
+ */
+@Component
+public class LoginThrottle {
+
+    private static final long MAX_TRACKED_KEYS = 100_000;
+
+    private final Cache<String, Integer> attemptsByIp;
+    private final Cache<String, Integer> failuresByUsername;
+    private final int maxAttemptsPerIp;
+    private final int maxFailuresPerUsername;
+    private final Counter ipThrottled;
+    private final Counter usernameThrottled;
+
+    public LoginThrottle(MeterRegistry meterRegistry,
+            @Value("${app.auth.throttle.ip.max-attempts:30}") int maxAttemptsPerIp,
+            @Value("${app.auth.throttle.ip.window:1m}") Duration ipWindow,
+            @Value("${app.auth.throttle.username.max-failures:5}") int maxFailuresPerUsername,
+            @Value("${app.auth.throttle.username.window:15m}") Duration usernameWindow) {
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.attemptsByIp = windowCache(ipWindow);
+        this.failuresByUsername = windowCache(usernameWindow);
+        this.ipThrottled = Counter.builder("auth.login.throttled")
+                .description("Authentication attempts refused before hashing")
+                .tag("scope", "ip")
+                .register(meterRegistry);
+        this.usernameThrottled = Counter.builder("auth.login.throttled")
+                .description("Authentication attempts refused before hashing")
+                .tag("scope", "username")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts a login attempt and rejects it when the IP or the username is over its limit.
+     */
+    public void checkLogin(String username, String clientIp) {
+        checkClient(clientIp);
+        String key = normalize(username);
+        Integer failures = failuresByUsername.getIfPresent(key);
+        if (failures != null && failures >= maxFailuresPerUsername) {
+            usernameThrottled.increment();
+            throw new TooManyAttemptsException("Too many failed logins for this account, please retry later",
+                    retryAfter(failuresByUsername, key));
+        }
+    }
+
+    /**
+     * Counts an attempt by the client and rejects it when the IP is over its limit.
+     */
+    public void checkClient(String clientIp) {
+        Integer attempts = attemptsByIp.asMap().merge(clientIp, 1, Integer::sum);
+        if (attempts > maxAttemptsPerIp) {
+            ipThrottled.increment();
+            throw new TooManyAttemptsException("Too many authentication attempts, please retry later",
+                    retryAfter(attemptsByIp, clientIp));
+        }
+    }
+
+    public void recordFailure(String username) {
+        failuresByUsername.asMap().merge(normalize(username), 1, Integer::sum);
+    }
+
+    public void recordSuccess(String username) {
+        failuresByUsername.invalidate(normalize(username));
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long retryAfter(Cache<String, Integer> cache, String key) {
+        return cache.policy().expireVariably()
+                .flatMap(policy -> policy.getExpiresAfter(key))
+                .map(remaining -> Math.max(1, remaining.toSeconds()))
+                .orElse(1L);
+    }
+
+    // Entries expire a fixed window after their first attempt; later attempts do not extend it
+    private static Cache<String, Integer> windowCache(Duration window) {
+        long windowNanos = window.toNanos();
+        return Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfter(new Expiry<String, Integer>() {
+                    @Override
+                    public long expireAfterCreate(String key, Integer attempts, long currentTime) {
+                        return windowNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Integer attempts, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Integer attempts, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+}
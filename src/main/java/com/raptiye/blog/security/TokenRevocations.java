@@ -0,0 +1,132 @@
+package com.raptiye.blog.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.raptiye.blog.domain.RevokedToken;
+import com.raptiye.blog.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Revoked access token ids. Every request is checked against an in-memory {@link BloomFilter}, so
+ * tokens that were never revoked cost no I/O; only filter hits are confirmed against the
+ * {@code revoked_tokens} table. The filter is rebuilt from the table every
+ * {@code jwt.revocation.reload-interval}, which purges expired ids and picks up other nodes' revocations.
+ */
+@Slf4j
+@Component
+public class TokenRevocations {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final AsyncLoadingCache<String, Boolean> confirmed;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+
+    // Unexpired revocations made on this node, re-added after each rebuild in case the reload's
+    // snapshot was taken before they committed
+    private final Map<String, LocalDateTime> recentRevocations = new ConcurrentHashMap<>();
+
+    public TokenRevocations(RevokedTokenRepository revokedTokenRepository, MeterRegistry meterRegistry,
+            @Value("${jwt.revocation.expected-entries:100000}") int expectedRevocations,
+            @Value("${jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedRevocations, falsePositiveRate);
+        this.confirmed = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(1, TimeUnit.MINUTES)
+                // Queried on its own virtual thread, never inside the cache's bin lock (see TokenVersions)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .buildAsync(revokedTokenRepository::existsById);
+        this.falsePositives = Counter.builder("auth.revocation.false-positives")
+                .description("Revocation filter hits that the table did not confirm")
+                .register(meterRegistry);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        if (recentRevocations.containsKey(jti)) {
+            return true;
+        }
+        boolean revoked = confirmed.get(jti).join();
+        if (!revoked) {
+            falsePositives.increment();
+        }
+        return revoked;
+    }
+
+    /**
+     * Records the revocation; callers run inside the transaction that should persist it. The filter
+     * and caches of this node only learn of it once that transaction commits, so a rollback never
+     * leaves a token rejected here that the table and the other nodes still accept.
+     */
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(jti, expiresAt));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(jti, expiresAt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(jti, expiresAt);
+            }
+        });
+    }
+
+    private void remember(String jti, LocalDateTime expiresAt) {
+        recentRevocations.put(jti, expiresAt);
+        filter.put(jti);
+        confirmed.synchronous().invalidate(jti);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.revocation.reload-interval:PT1M}",
+            initialDelayString = "${jwt.revocation.reload-interval:PT1M}")
+    @Transactional
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        recentRevocations.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+
+        BloomFilter rebuilt = new BloomFilter(expectedRevocations, falsePositiveRate);
+        AtomicInteger count = new AtomicInteger();
+        try (Stream<String> ids = revokedTokenRepository.streamUnexpiredIds(now)) {
+            ids.forEach(jti -> {
+                rebuilt.put(jti);
+                count.incrementAndGet();
+            });
+        }
+        recentRevocations.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+        confirmed.synchronous().invalidateAll();
+
+        if (count.get() > expectedRevocations) {
+            log.warn("{} revoked tokens exceed the {} the revocation filter is sized for; false positives will rise",
+                    count.get(), expectedRevocations);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.raptiye.blog.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.raptiye.blog.event.UserTokensRevokedEvent;
+import com.raptiye.blog.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Current token version per user, read from {@code users.token_version} at most once per
+ * {@code jwt.token-version.ttl}. Bumps made through {@code UserService} take effect on this node
+ * immediately after commit; other nodes and direct database edits catch up within the TTL.
+ */
+@Component
+public class TokenVersions {
+
+    // Deleted users match no token
+    private static final int UNKNOWN_USER = -1;
+
+    // Loaded off the caller's thread: a synchronous load runs its query inside the cache map's bin
+    // lock, which would pin a virtual request thread to its carrier for the whole round trip
+    private final AsyncLoadingCache<Long, Integer> versions;
+
+    public TokenVersions(UserRepository userRepository, MeterRegistry meterRegistry,
+            @Value("${jwt.token-version.ttl:30s}") Duration ttl,
+            @Value("${jwt.token-version.max-size:10000}") long maxSize) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .recordStats()
+                .buildAsync(userId -> userRepository.findTokenVersionById(userId).orElse(UNKNOWN_USER));
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "tokenVersions");
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        return versions.get(userId).join() == tokenVersion;
+    }
+
+    @TransactionalEventListener
+    public void onUserTokensRevoked(UserTokensRevokedEvent event) {
+        versions.synchronous().invalidate(event.userId());
+    }
+}
@@ -3,16 +3,28 @@ package com.raptiye.blog.service;
 import com.raptiye.blog.domain.Role;
 import com.raptiye.blog.domain.User;
 import com.raptiye.blog.dto.request.LoginRequest;
+import com.raptiye.blog.dto.request.RefreshTokenRequest;
 import com.raptiye.blog.dto.request.RegisterRequest;
 import com.raptiye.blog.dto.response.AuthResponse;
+import com.raptiye.blog.exception.InvalidTokenException;
+import com.raptiye.blog.exception.ServiceBusyException;
 import com.raptiye.blog.repository.UserRepository;
 import com.raptiye.blog.security.JwtUtil;
+import com.raptiye.blog.security.LoginThrottle;
+import com.raptiye.blog.security.TokenRevocations;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 @Service
 @RequiredArgsConstructor
@@ -23,9 +35,17 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
     private final AuthenticationManager authenticationManager;
+    private final LoginThrottle loginThrottle;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocations tokenRevocations;
+    private final TransactionTemplate transactionTemplate;
+
+    // BCrypt runs outside any transaction, so requests waiting for the hashing pool hold no
+    // pooled connection; only the writes share one short transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponse register(RegisterRequest request, String clientIp) {
+        loginThrottle.checkClient(clientIp);
 
-    @Transactional
-    public AuthResponse register(RegisterRequest request) {
         // Check if username already exists
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new IllegalArgumentException("Username already exists");
@@ -36,36 +56,86 @@ public class AuthService {
             throw new IllegalArgumentException("Email already exists");
         }
 
-        // Create new user
-        User user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .role(Role.USER)
-                .build();
+        String encodedPassword = passwordEncoder.encode(request.getPassword());
+
+        return transactionTemplate.execute(status -> {
+            // Create new user
+            User user = User.builder()
+                    .username(request.getUsername())
+                    .email(request.getEmail())
+                    .password(encodedPassword)
+                    .role(Role.USER)
+                    .build();
+
+            userRepository.save(user);
+
+            return issueTokens(user, refreshTokenService.issue(user));
+        });
+    }
 
-        userRepository.save(user);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponse login(LoginRequest request, String clientIp) {
+        // Refused attempts never reach BCrypt
+        loginThrottle.checkLogin(request.getUsername(), clientIp);
 
-        // Generate JWT token
-        String token = jwtUtil.generateToken(user);
+        // Authenticate user; the user details lookup runs in its own read-only transaction
+        try {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            request.getUsername(),
+                            request.getPassword()));
+        } catch (AuthenticationException e) {
+            // The provider wraps a saturated hasher on the unknown-user path; that is not a failed login
+            if (e.getCause() instanceof ServiceBusyException busy) {
+                throw busy;
+            }
+            loginThrottle.recordFailure(request.getUsername());
+            throw e;
+        }
+        loginThrottle.recordSuccess(request.getUsername());
+
+        return transactionTemplate.execute(status -> {
+            // Get user from database
+            User user = userRepository.findByUsername(request.getUsername())
+                    .orElseThrow(() -> new IllegalArgumentException("Invalid username or password"));
 
-        return new AuthResponse(token, user.getUsername(), user.getEmail(), user.getRole().name());
+            return issueTokens(user, refreshTokenService.issue(user));
+        });
     }
 
-    public AuthResponse login(LoginRequest request) {
-        // Authenticate user
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        request.getUsername(),
-                        request.getPassword()));
+    /**
+     * Exchanges a refresh token for a new access token and the next refresh token of its family.
+     * The access token is built from the current user row, so role changes apply on refresh.
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+        return issueTokens(rotation.user(), rotation.refreshToken());
+    }
 
-        // Get user from database
-        User user = userRepository.findByUsername(request.getUsername())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid username or password"));
+    @Transactional
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        if (accessToken != null) {
+            jwtUtil.parseVerified(accessToken)
+                    .filter(claims -> claims.getId() != null)
+                    .ifPresent(this::revokeAccessToken);
+        }
+    }
 
-        // Generate JWT token
-        String token = jwtUtil.generateToken(user);
+    private void revokeAccessToken(Claims claims) {
+        tokenRevocations.revoke(claims.getId(),
+                LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+    }
 
-        return new AuthResponse(token, user.getUsername(), user.getEmail(), user.getRole().name());
+    private AuthResponse issueTokens(User user, String refreshToken) {
+        return AuthResponse.builder()
+                .token(jwtUtil.generateToken(user))
+                .expiresIn(jwtUtil.getExpirationSeconds())
+                .refreshToken(refreshToken)
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .role(user.getRole().name())
+                .build();
     }
 }
@@ -0,0 +1,144 @@
+package com.raptiye.blog.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes every post with its tag names and comments as NDJSON, one post per line, in the format
+ * {@link PostImportService} reads (plus ids, slugs and timestamps, which the import ignores).
+ *
+ * <p>Posts, post tags and comments are read through three forward-only cursors ordered by post id
+ * and merged as they stream, in a stateless session so nothing accumulates in a persistence
+ * context; memory use is the same for ten posts or a million, and for a post with twenty thousand
+ * comments. The cursors share one read-only REPEATABLE READ transaction, so the export is a
+ * consistent snapshot even while the blog is being written to.
+ */
+@Slf4j
+@Service
+public class BlogExportService {
+
+    private static final String POSTS = "SELECT p.id, p.slug, p.title, p.summary, p.content, p.published, "
+            + "p.createdAt, p.updatedAt FROM Post p ORDER BY p.id";
+    private static final String POST_TAGS = "SELECT p.id, t.name FROM Post p JOIN p.tags t ORDER BY p.id, t.name";
+    private static final String COMMENTS = "SELECT c.post.id, c.authorName, c.authorEmail, c.content, c.approved, "
+            + "c.createdAt FROM Comment c ORDER BY c.post.id, c.id";
+
+    private final SessionFactory sessionFactory;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+    private final int flushEvery;
+
+    public BlogExportService(EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+            @Value("${app.export.fetch-size:500}") int fetchSize,
+            @Value("${app.export.flush-every:100}") int flushEvery) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+        this.flushEvery = flushEvery;
+    }
+
+    /**
+     * Streams the export to {@code out}, flushing every {@code flush-every} posts. {@code out} is
+     * flushed but not closed.
+     *
+     * @return the number of exported posts
+     */
+    public long export(OutputStream out) throws IOException {
+        long started = System.nanoTime();
+        long exported = 0;
+        try (StatelessSession session = sessionFactory.openStatelessSession();
+                JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+            generator.setRootValueSeparator(null); // Lines end with '\n' instead
+            session.doWork(connection -> {
+                connection.setReadOnly(true);
+                connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            });
+            // Cursors only stream inside a transaction; otherwise the PostgreSQL driver fetches every row up front
+            session.beginTransaction();
+            try (ScrollableResults<Object[]> posts = scroll(session, POSTS);
+                    ScrollableResults<Object[]> tags = scroll(session, POST_TAGS);
+                    ScrollableResults<Object[]> comments = scroll(session, COMMENTS)) {
+                Object[] tag = next(tags);
+                Object[] comment = next(comments);
+                while (posts.next()) {
+                    Object[] post = posts.get();
+                    Long postId = (Long) post[0];
+
+                    generator.writeStartObject();
+                    generator.writeNumberField("id", postId);
+                    generator.writeStringField("slug", (String) post[1]);
+                    generator.writeStringField("title", (String) post[2]);
+                    generator.writeStringField("summary", (String) post[3]);
+                    generator.writeStringField("content", (String) post[4]);
+                    generator.writeBooleanField("published", (Boolean) post[5]);
+                    writeTimestamp(generator, "createdAt", post[6]);
+                    writeTimestamp(generator, "updatedAt", post[7]);
+
+                    generator.writeArrayFieldStart("tags");
+                    while (tag != null && (Long) tag[0] <= postId) {
+                        if (postId.equals(tag[0])) {
+                            generator.writeString((String) tag[1]);
+                        }
+                        tag = next(tags);
+                    }
+                    generator.writeEndArray();
+
+                    generator.writeArrayFieldStart("comments");
+                    while (comment != null && (Long) comment[0] <= postId) {
+                        if (postId.equals(comment[0])) {
+                            generator.writeStartObject();
+                            generator.writeStringField("authorName", (String) comment[1]);
+                            generator.writeStringField("authorEmail", (String) comment[2]);
+                            generator.writeStringField("content", (String) comment[3]);
+                            generator.writeBooleanField("approved", (Boolean) comment[4]);
+                            writeTimestamp(generator, "createdAt", comment[5]);
+                            generator.writeEndObject();
+                        }
+                        comment = next(comments);
+                    }
+                    generator.writeEndArray();
+
+                    generator.writeEndObject();
+                    generator.writeRaw('\n');
+                    if (++exported % flushEvery == 0) {
+                        generator.flush();
+                    }
+                }
+            } finally {
+                session.getTransaction().rollback();
+            }
+            generator.flush();
+        }
+        log.info("Exported {} posts in {} ms", exported, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return exported;
+    }
+
+    private ScrollableResults<Object[]> scroll(StatelessSession session, String query) {
+        return session.createSelectionQuery(query, Object[].class)
+                .setFetchSize(fetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    private static Object[] next(ScrollableResults<Object[]> rows) {
+        return rows.next() ? rows.get() : null;
+    }
+
+    private static void writeTimestamp(JsonGenerator generator, String field, Object value) throws IOException {
+        generator.writeStringField(field, value == null ? null : value.toString());
+    }
+}
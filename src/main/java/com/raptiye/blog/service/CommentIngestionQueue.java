@@ -0,0 +1,260 @@
+package com.raptiye.blog.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raptiye.blog.dto.request.CreateCommentRequest;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.exception.ResourceNotFoundException;
+import com.raptiye.blog.exception.ServiceBusyException;
+import com.raptiye.blog.repository.PostRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind ingestion for new comments, enabled with {@code app.comments.write-behind.enabled}.
+ * Requests are validated and queued in memory; a single writer thread inserts whatever has queued
+ * up, at most {@code batch-size} rows per JDBC batch and transaction, so bursts on a popular post
+ * become a few multi-row transactions instead of one transaction per request.
+ *
+ * <p>Delivery semantics:
+ * <ul>
+ *   <li>Accepted comments live only in this JVM until their batch commits. A crash loses what is
+ *       queued (at most {@code queue-capacity} comments); a graceful shutdown stops accepting and
+ *       drains the queue for up to {@code shutdown-timeout}.</li>
+ *   <li>Failing batches are retried {@code max-retries} times with exponential backoff, then
+ *       dropped and counted. A connection lost while committing leaves the outcome unknown, so that
+ *       batch may be written twice.</li>
+ *   <li>Rows that violate a constraint (their post was deleted after validation) are dropped
+ *       individually; the rest of the batch is still written.</li>
+ *   <li>A full queue answers 503 with {@code Retry-After} rather than blocking request threads.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.comments.write-behind.enabled", havingValue = "true")
+public class CommentIngestionQueue {
+
+    static final String INSERT_SQL = "INSERT INTO comments "
+            + "(post_id, author_name, author_email, content, approved, created_at, updated_at) "
+            + "VALUES (?, ?, ?, ?, FALSE, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostRepository postRepository;
+    private final BlockingQueue<PendingComment> queue;
+    private final int batchSize;
+    private final int maxRetries;
+    private final Duration retryBackoff;
+    private final Duration shutdownTimeout;
+
+    // Only existing posts are remembered, so a new post is commentable immediately
+    private final Cache<Long, Boolean> knownPosts = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "comment-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Offers hold the read lock, so once shutdown has taken the write lock nothing joins the queue
+    // after the writer may have seen it empty
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting = true;
+
+    private final Counter rejected;
+    private final Counter written;
+    private final Counter droppedRows;
+    private final Counter droppedBatches;
+    private final DistributionSummary batchSizes;
+    private final Timer flushes;
+
+    record PendingComment(Long postId, String authorName, String authorEmail, String content,
+            LocalDateTime receivedAt) {
+    }
+
+    public CommentIngestionQueue(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            PostRepository postRepository, MeterRegistry meterRegistry,
+            @Value("${app.comments.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.comments.write-behind.batch-size:500}") int batchSize,
+            @Value("${app.comments.write-behind.max-retries:3}") int maxRetries,
+            @Value("${app.comments.write-behind.retry-backoff:500ms}") Duration retryBackoff,
+            @Value("${app.comments.write-behind.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postRepository = postRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("comments.ingest.queue", queue, BlockingQueue::size)
+                .description("Accepted comments waiting for the writer")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("comments.ingest.rejected")
+                .description("Comments refused because the queue was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("comments.ingest.written")
+                .register(meterRegistry);
+        this.droppedRows = Counter.builder("comments.ingest.dropped")
+                .tag("reason", "constraint")
+                .register(meterRegistry);
+        this.droppedBatches = Counter.builder("comments.ingest.dropped")
+                .tag("reason", "retries-exhausted")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("comments.ingest.batch.size")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("comments.ingest.flush")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.execute(this::run);
+    }
+
+    /**
+     * Validates and queues a new comment for the writer.
+     *
+     * @throws ResourceNotFoundException when the post does not exist
+     * @throws ServiceBusyException when the queue is full or the application is shutting down
+     */
+    public void enqueue(Long postId, CreateCommentRequest request) {
+        if (knownPosts.getIfPresent(postId) == null) {
+            if (!postRepository.existsById(postId)) {
+                throw new ResourceNotFoundException("Post", "id", postId);
+            }
+            knownPosts.put(postId, Boolean.TRUE);
+        }
+
+        PendingComment comment = new PendingComment(postId, request.getAuthorName(), request.getAuthorEmail(),
+                request.getContent(), LocalDateTime.now());
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting || !queue.offer(comment)) {
+                rejected.increment();
+                throw new ServiceBusyException("Comment queue is full", 1);
+            }
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        knownPosts.invalidate(event.postId());
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        writer.shutdown();
+        if (!writer.awaitTermination(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.error("Comment writer did not drain in {}; {} accepted comments are lost",
+                    shutdownTimeout, queue.size());
+            writer.shutdownNow();
+        }
+    }
+
+    // Takes whatever queued up while the previous batch was written, so batches grow with load
+    private void run() {
+        List<PendingComment> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingComment first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Comment writer failed on a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void write(List<PendingComment> batch) throws InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            long started = System.nanoTime();
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(INSERT_SQL, batch.stream().map(CommentIngestionQueue::toRow).toList()));
+                flushes.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                batchSizes.record(batch.size());
+                written.increment(batch.size());
+                return;
+            } catch (DataIntegrityViolationException e) {
+                writeOneByOne(batch);
+                return;
+            } catch (DataAccessException e) {
+                if (attempt >= maxRetries) {
+                    droppedBatches.increment(batch.size());
+                    log.error("Dropping {} comments after {} attempts", batch.size(), attempt + 1, e);
+                    return;
+                }
+                log.warn("Comment batch of {} failed, retrying: {}", batch.size(), e.getMessage());
+                Thread.sleep(retryBackoff.toMillis() << attempt);
+            }
+        }
+    }
+
+    // One transaction per row, since a failed statement aborts the whole transaction on PostgreSQL
+    private void writeOneByOne(List<PendingComment> batch) {
+        for (PendingComment comment : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, toRow(comment)));
+                written.increment();
+            } catch (DataIntegrityViolationException e) {
+                droppedRows.increment();
+                log.info("Dropping queued comment for post {}: {}", comment.postId(), e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private static Object[] toRow(PendingComment comment) {
+        Timestamp receivedAt = Timestamp.valueOf(comment.receivedAt());
+        return new Object[] {comment.postId(), comment.authorName(), comment.authorEmail(), comment.content(),
+                receivedAt, receivedAt};
+    }
+}
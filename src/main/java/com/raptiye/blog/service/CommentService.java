@@ -2,44 +2,83 @@ package com.raptiye.blog.service;
 
 import com.raptiye.blog.domain.Comment;
 import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.dto.request.BulkCommentRequest;
 import com.raptiye.blog.dto.request.CreateCommentRequest;
+import com.raptiye.blog.dto.response.BulkCommentResponse;
 import com.raptiye.blog.dto.response.CommentResponse;
+import com.raptiye.blog.dto.response.CursorPageResponse;
+import com.raptiye.blog.event.CommentChangedEvent;
 import com.raptiye.blog.exception.ResourceNotFoundException;
 import com.raptiye.blog.mapper.CommentMapper;
 import com.raptiye.blog.repository.CommentRepository;
 import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.util.KeysetCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class CommentService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Keeps the IN lists of post locks and recounts well below driver parameter limits
+    private static final int POST_ID_BATCH_SIZE = 1000;
+
     private final CommentRepository commentRepository;
     private final PostRepository postRepository;
     private final CommentMapper commentMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public List<CommentResponse> getApprovedCommentsByPostId(Long postId) {
-        return commentRepository.findByPostIdAndApprovedTrueOrderByCreatedAtDesc(postId).stream()
-                .map(commentMapper::toResponse)
-                .collect(Collectors.toList());
+    /**
+     * Comments of a post, newest first, one keyset page at a time; only approved ones unless
+     * {@code includeAll} is set. Rows are projected from the comments table alone.
+     */
+    public CursorPageResponse<CommentResponse> getCommentsByPostId(Long postId, boolean includeAll, String cursor,
+            int limit) {
+        int pageSize = clampPageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<CommentResponse> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = includeAll
+                    ? commentRepository.findByPostId(postId, fetchLimit)
+                    : commentRepository.findApprovedByPostId(postId, fetchLimit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            comments = includeAll
+                    ? commentRepository.findByPostIdBefore(postId, position.createdAt(), position.id(), fetchLimit)
+                    : commentRepository.findApprovedByPostIdBefore(postId, position.createdAt(), position.id(),
+                            fetchLimit);
+        }
+        return toPage(comments, pageSize);
     }
 
-    public List<CommentResponse> getAllCommentsByPostId(Long postId) {
-        return commentRepository.findByPostIdOrderByCreatedAtDesc(postId).stream()
-                .map(commentMapper::toResponse)
-                .collect(Collectors.toList());
+    public long countCommentsByPostId(Long postId) {
+        return commentRepository.countByPostId(postId);
     }
 
-    public List<CommentResponse> getPendingComments() {
-        return commentRepository.findByApprovedFalseOrderByCreatedAtDesc().stream()
-                .map(commentMapper::toResponse)
-                .collect(Collectors.toList());
+    /**
+     * Pending comments, newest first, one keyset page at a time. Rows are projected from the
+     * comments table alone; posts are never loaded.
+     */
+    public CursorPageResponse<CommentResponse> getPendingComments(String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<CommentResponse> comments;
+        if (cursor == null || cursor.isBlank()) {
+            comments = commentRepository.findPending(fetchLimit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            comments = commentRepository.findPendingBefore(position.createdAt(), position.id(), fetchLimit);
+        }
+        return toPage(comments, pageSize);
     }
 
     @Transactional
@@ -64,16 +103,110 @@ public class CommentService {
         Comment comment = commentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", id));
 
-        comment.setApproved(true);
-        Comment savedComment = commentRepository.save(comment);
-        return commentMapper.toResponse(savedComment);
+        if (commentRepository.approveIfPending(id) > 0) {
+            postRepository.incrementApprovedCommentCount(comment.getPost().getId());
+            eventPublisher.publishEvent(new CommentChangedEvent(comment.getPost().getId()));
+        }
+
+        // The loaded entity predates the UPDATE; only the response reflects it, so nothing is written twice
+        CommentResponse response = commentMapper.toResponse(comment);
+        response.setApproved(true);
+        return response;
     }
 
     @Transactional
     public void deleteComment(Long id) {
-        if (!commentRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Comment", "id", id);
+        // Row lock keeps the approved flag stable against a concurrent approveComment
+        Comment comment = commentRepository.findByIdForUpdate(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Comment", "id", id));
+
+        if (comment.isApproved()) {
+            postRepository.decrementApprovedCommentCount(comment.getPost().getId());
+            // Pending comments never reach public pages, so only approved ones invalidate them
+            eventPublisher.publishEvent(new CommentChangedEvent(comment.getPost().getId()));
+        }
+        commentRepository.delete(comment);
+    }
+
+    /**
+     * Approves every pending comment selected by {@code request} with a single UPDATE, then
+     * recounts the approved comments of the posts it returned.
+     */
+    @Transactional
+    public BulkCommentResponse approveComments(BulkCommentRequest request) {
+        Selection selection = Selection.of(request);
+        List<Long> postIds = commentRepository.approvePendingInSelection(selection.filterIds(), selection.ids(),
+                selection.postId(), selection.createdBefore());
+        recountApprovedComments(postIds);
+        return new BulkCommentResponse(postIds.size());
+    }
+
+    /**
+     * Deletes every comment selected by {@code request} with a single DELETE, then recounts the
+     * approved comments of the posts it returned.
+     */
+    @Transactional
+    public BulkCommentResponse deleteComments(BulkCommentRequest request) {
+        Selection selection = Selection.of(request);
+        List<Long> postIds = commentRepository.deleteSelection(selection.filterIds(), selection.ids(),
+                selection.postId(), selection.createdBefore());
+        recountApprovedComments(postIds);
+        return new BulkCommentResponse(postIds.size());
+    }
+
+    // Counting from the rows keeps the counters exact whichever comments the statement actually changed.
+    // The post locks wait for concurrent single approvals and deletions to commit, so the recount,
+    // a later statement with a fresh snapshot, sees them.
+    private void recountApprovedComments(List<Long> changedRowPostIds) {
+        List<Long> postIds = changedRowPostIds.stream().distinct().toList();
+        for (int from = 0; from < postIds.size(); from += POST_ID_BATCH_SIZE) {
+            List<Long> batch = postIds.subList(from, Math.min(from + POST_ID_BATCH_SIZE, postIds.size()));
+            postRepository.lockByIds(batch);
+            postRepository.recountApprovedComments(batch);
+        }
+        postIds.forEach(postId -> eventPublisher.publishEvent(new CommentChangedEvent(postId)));
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // One extra row is fetched so the presence of a next page is known without a COUNT query
+    private CursorPageResponse<CommentResponse> toPage(List<CommentResponse> comments, int pageSize) {
+        boolean hasNext = comments.size() > pageSize;
+        List<CommentResponse> content = hasNext ? comments.subList(0, pageSize) : comments;
+        String nextCursor = null;
+        if (hasNext) {
+            CommentResponse last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPageResponse.<CommentResponse>builder()
+                .content(content)
+                .limit(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Normalized bulk criteria. {@code createdBefore} is capped at the time of the request, so
+     * comments arriving while the statements run are never included.
+     */
+    record Selection(boolean filterIds, List<Long> ids, Long postId, LocalDateTime createdBefore) {
+
+        static Selection of(BulkCommentRequest request) {
+            boolean filterIds = request.getIds() != null && !request.getIds().isEmpty();
+            if (!filterIds && request.getPostId() == null && request.getCreatedBefore() == null) {
+                throw new IllegalArgumentException("Select comments by ids, postId or createdBefore");
+            }
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime createdBefore = request.getCreatedBefore() == null || request.getCreatedBefore().isAfter(now)
+                    ? now
+                    : request.getCreatedBefore();
+            // An IN list must not be empty even when it is not consulted
+            List<Long> ids = filterIds ? request.getIds() : List.of(0L);
+            return new Selection(filterIds, ids, request.getPostId(), createdBefore);
         }
-        commentRepository.deleteById(id);
     }
 }
@@ -0,0 +1,125 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.domain.ContentVersion;
+import com.raptiye.blog.event.CommentChangedEvent;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.PostTagsChangedEvent;
+import com.raptiye.blog.event.RelatedPostsChangedEvent;
+import com.raptiye.blog.event.TagCreatedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
+import com.raptiye.blog.repository.ContentVersionRepository;
+import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.util.ResourceVersion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Computes ETag / Last-Modified validators without scanning any table, so a conditional GET can
+ * be answered before any entity graph is loaded or mapped.
+ *
+ * <p>A post's validators come from its own row (a primary key or slug lookup). Everything that
+ * lists posts or tags shares one catalog generation kept in the single {@code content_version}
+ * row. Comment moderation and tag changes alter a post page without touching the post row, so
+ * they also advance a second, smaller generation that is part of every post version. The change
+ * events advance the row just before their transaction commits, inside it, so every instance sees
+ * a write exactly when it becomes visible and the row lock is only held for the commit itself.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ContentVersionService {
+
+    private final PostRepository postRepository;
+    private final ContentVersionRepository contentVersionRepository;
+
+    /**
+     * Validators of a post detail, or empty when the post does not exist or the response includes
+     * pending comments, whose creation advances no version.
+     */
+    public Optional<ResourceVersion> getPostVersion(String slug, boolean includeAllComments) {
+        if (includeAllComments) {
+            return Optional.empty();
+        }
+        return postRepository.findVersionBySlug(slug).map(this::toVersion);
+    }
+
+    public Optional<ResourceVersion> getPostVersion(Long id, boolean includeAllComments) {
+        if (includeAllComments) {
+            return Optional.empty();
+        }
+        return postRepository.findVersionById(id).map(this::toVersion);
+    }
+
+    // Lists, tag pages and the home page embed many posts and tag counts, so they share one version
+    public ResourceVersion getCatalogVersion() {
+        ContentVersion current = currentVersion();
+        return ResourceVersion.of(current.getCatalogModified(), "catalog", current.getCatalog());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPostChanged(PostChangedEvent event) {
+        advance(false);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPostTagsChanged(PostTagsChangedEvent event) {
+        advance(false);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onPostDeleted(PostDeletedEvent event) {
+        advance(false);
+    }
+
+    // Related lists are rewritten in their own transaction after the tag change has committed; they are
+    // served under the catalog version (the related endpoint and, combined with the post version, post pages)
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRelatedPostsChanged(RelatedPostsChangedEvent event) {
+        advance(false);
+    }
+
+    // Listings show approved comment counts
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onCommentChanged(CommentChangedEvent event) {
+        advance(true);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTagCreated(TagCreatedEvent event) {
+        advance(true);
+    }
+
+    // Tag deletions reach post_tags through ON DELETE CASCADE without touching the post row
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onTagDeleted(TagDeletedEvent event) {
+        advance(true);
+    }
+
+    private ResourceVersion toVersion(PostRepository.PostVersion post) {
+        ContentVersion current = currentVersion();
+        return ResourceVersion.of(ResourceVersion.latest(post.getUpdatedAt(), current.getPostsModified()),
+                "post", post.getId(), post.getVersion(), post.getUpdatedAt(), post.getApprovedCommentCount(),
+                current.getPosts());
+    }
+
+    private ContentVersion currentVersion() {
+        return contentVersionRepository.findById(ContentVersion.ID)
+                .orElseThrow(() -> new IllegalStateException("content_version row is missing"));
+    }
+
+    private void advance(boolean postPagesAffected) {
+        LocalDateTime now = LocalDateTime.now();
+        if (postPagesAffected) {
+            contentVersionRepository.advanceCatalogAndPosts(now);
+        } else {
+            contentVersionRepository.advanceCatalog(now);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.raptiye.blog.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.raptiye.blog.domain.Comment;
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.domain.Tag;
+import com.raptiye.blog.dto.request.ImportCommentRequest;
+import com.raptiye.blog.dto.request.ImportPostRequest;
+import com.raptiye.blog.dto.response.ImportResponse;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.exception.ServiceBusyException;
+import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.repository.TagRepository;
+import com.raptiye.blog.util.MarkdownService;
+import com.raptiye.blog.util.Slugs;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of posts with their tags and comments from NDJSON, one post per line:
+ * <pre>
+ * {"title":"...","summary":"...","content":"...","published":true,"tags":["Java","Spring"],
+ *  "comments":[{"authorName":"...","authorEmail":"...","content":"...","approved":true}]}
+ * </pre>
+ * Lines are parsed and validated one at a time and written in chunks of {@code chunk-size} posts,
+ * one transaction per chunk whose inserts go out in JDBC batches. Only the current chunk and the
+ * slug to id map of the tags seen so far are held in memory, however large the input. Tags are
+ * matched by slug, as their unique constraint is, and created when missing.
+ *
+ * <p>Invalid lines, lines longer than {@code max-line-length} characters (never buffered beyond
+ * that) and posts whose slug already exists are reported and skipped, so an import
+ * that stopped halfway can simply be sent again. A chunk that fails on a constraint is rolled
+ * back and retried line by line to pin the error on its line; committed chunks stay committed.
+ */
+@Slf4j
+@Service
+public class PostImportService {
+
+    private final ObjectReader reader;
+    private final Validator validator;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PostRepository postRepository;
+    private final TagRepository tagRepository;
+    private final MarkdownService markdownService;
+    private final RelatedPostService relatedPostService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+    private final int maxLineLength;
+
+    // Concurrent imports would race on the same slugs and tags
+    private final ReentrantLock running = new ReentrantLock();
+
+    private final Counter importedLines;
+    private final Counter failedLines;
+
+    record ParsedLine(long number, ImportPostRequest post) {
+    }
+
+    public PostImportService(ObjectMapper objectMapper, Validator validator, EntityManager entityManager,
+            PlatformTransactionManager transactionManager, PostRepository postRepository,
+            TagRepository tagRepository, MarkdownService markdownService, RelatedPostService relatedPostService,
+            ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+            @Value("${app.import.chunk-size:500}") int chunkSize,
+            @Value("${app.import.max-reported-errors:100}") int maxReportedErrors,
+            @Value("${app.import.max-line-length:4194304}") int maxLineLength) {
+        this.reader = objectMapper.readerFor(ImportPostRequest.class);
+        this.validator = validator;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postRepository = postRepository;
+        this.tagRepository = tagRepository;
+        this.markdownService = markdownService;
+        this.relatedPostService = relatedPostService;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.maxLineLength = maxLineLength;
+
+        this.importedLines = Counter.builder("posts.import.lines")
+                .description("Imported posts; grows chunk by chunk while an import runs")
+                .tag("outcome", "imported")
+                .register(meterRegistry);
+        this.failedLines = Counter.builder("posts.import.lines")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Imports every line of {@code input}, committing chunk by chunk.
+     *
+     * @throws ServiceBusyException when another import is running
+     */
+    @CacheEvict(cacheNames = TagService.TAG_CLOUD_CACHE, allEntries = true)
+    public ImportResponse importPosts(InputStream input) throws IOException {
+        if (!running.tryLock()) {
+            throw new ServiceBusyException("Another import is running", 30);
+        }
+        try {
+            return doImport(input);
+        } finally {
+            running.unlock();
+        }
+    }
+
+    private ImportResponse doImport(InputStream input) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        Map<String, Long> knownTags = new HashMap<>();
+        List<ParsedLine> chunk = new ArrayList<>(chunkSize);
+
+        BoundedLineReader lines = new BoundedLineReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+                maxLineLength);
+        while (lines.next()) {
+            progress.lines++;
+            String line = lines.line();
+            if (line == null) {
+                progress.fail(progress.lines, "Line is longer than " + maxLineLength + " characters");
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            ImportPostRequest post = parse(line, progress);
+            if (post != null) {
+                chunk.add(new ParsedLine(progress.lines, post));
+            }
+            if (chunk.size() >= chunkSize) {
+                write(chunk, knownTags, progress);
+            }
+        }
+        write(chunk, knownTags, progress);
+
+        // One full recomputation instead of one incremental pass per imported post, off the request thread
+        if (progress.tagged > 0) {
+            relatedPostService.scheduleRebuild();
+        }
+
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Imported {} posts, {} comments and {} new tags from {} lines in {} ms; {} lines failed",
+                progress.posts, progress.comments, progress.tagsCreated, progress.lines, durationMs, progress.failed);
+        return ImportResponse.builder()
+                .lines(progress.lines)
+                .posts(progress.posts)
+                .comments(progress.comments)
+                .tagsCreated(progress.tagsCreated)
+                .failed(progress.failed)
+                .errors(progress.errors)
+                .durationMs(durationMs)
+                .build();
+    }
+
+    private ImportPostRequest parse(String line, Progress progress) {
+        ImportPostRequest post;
+        try (JsonParser parser = reader.createParser(line)) {
+            post = reader.readValue(parser);
+            if (post == null || parser.nextToken() != null) {
+                progress.fail(progress.lines, "Expected exactly one JSON object");
+                return null;
+            }
+        } catch (JsonProcessingException e) {
+            progress.fail(progress.lines, "Malformed JSON: " + e.getOriginalMessage());
+            return null;
+        } catch (IOException e) {
+            progress.fail(progress.lines, e.getMessage());
+            return null;
+        }
+
+        Set<ConstraintViolation<ImportPostRequest>> violations = validator.validate(post);
+        if (!violations.isEmpty()) {
+            progress.fail(progress.lines, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+            return null;
+        }
+        if (Slugs.of(post.getTitle()).isEmpty()) {
+            progress.fail(progress.lines, "Title must contain a letter or a digit");
+            return null;
+        }
+        if (post.getTags() != null && post.getTags().stream().anyMatch(name -> Slugs.of(name).isEmpty())) {
+            progress.fail(progress.lines, "Tag names must contain a letter or a digit");
+            return null;
+        }
+        return post;
+    }
+
+    private void write(List<ParsedLine> chunk, Map<String, Long> knownTags, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        long failedBefore = progress.failed;
+        long postsBefore = progress.posts;
+        try {
+            progress.add(transactionTemplate.execute(status -> persist(chunk, knownTags)), knownTags);
+        } catch (DataIntegrityViolationException e) {
+            // One transaction per line, since a failed statement aborts the whole transaction on PostgreSQL
+            for (ParsedLine line : chunk) {
+                try {
+                    progress.add(transactionTemplate.execute(status -> persist(List.of(line), knownTags)), knownTags);
+                } catch (DataIntegrityViolationException lineFailure) {
+                    progress.fail(line.number(), lineFailure.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        chunk.clear();
+
+        importedLines.increment(progress.posts - postsBefore);
+        failedLines.increment(progress.failed - failedBefore);
+        log.info("Import progress: {} lines read, {} posts imported, {} failed",
+                progress.lines, progress.posts, progress.failed);
+    }
+
+    // Runs in the chunk transaction; everything it resolves is only trusted once that commits
+    private ChunkResult persist(List<ParsedLine> chunk, Map<String, Long> knownTags) {
+        ChunkResult result = new ChunkResult();
+        Map<String, Long> tagIds = resolveTags(chunk, knownTags, result);
+
+        Set<String> slugs = chunk.stream()
+                .map(line -> Slugs.of(line.post().getTitle()))
+                .collect(Collectors.toSet());
+        Set<String> takenSlugs = new HashSet<>(postRepository.findSlugsIn(slugs));
+
+        for (ParsedLine line : chunk) {
+            ImportPostRequest request = line.post();
+            String slug = Slugs.of(request.getTitle());
+            if (!takenSlugs.add(slug)) {
+                result.rejected.add(new ImportResponse.LineError(line.number(),
+                        "A post with slug '" + slug + "' already exists"));
+                continue;
+            }
+
+            Post post = toPost(request, slug);
+            // References only: the owning side writes post_tags without loading the tags' post sets
+            if (request.getTags() != null) {
+                request.getTags().forEach(name ->
+                        post.getTags().add(entityManager.getReference(Tag.class, tagIds.get(Slugs.of(name)))));
+            }
+            entityManager.persist(post);
+            eventPublisher.publishEvent(PostChangedEvent.of(post));
+
+            result.posts++;
+            result.comments += post.getComments().size();
+            if (!post.getTags().isEmpty()) {
+                result.tagged++;
+            }
+        }
+        return result;
+    }
+
+    // Looks up only the slugs not seen in earlier chunks and creates those that do not exist yet
+    private Map<String, Long> resolveTags(List<ParsedLine> chunk, Map<String, Long> knownTags, ChunkResult result) {
+        Map<String, String> namesBySlug = new LinkedHashMap<>();
+        for (ParsedLine line : chunk) {
+            if (line.post().getTags() != null) {
+                line.post().getTags().forEach(name -> namesBySlug.putIfAbsent(Slugs.of(name), name.trim()));
+            }
+        }
+
+        Map<String, Long> tagIds = new HashMap<>();
+        List<String> unknown = new ArrayList<>();
+        namesBySlug.keySet().forEach(slug -> {
+            Long id = knownTags.get(slug);
+            if (id != null) {
+                tagIds.put(slug, id);
+            } else {
+                unknown.add(slug);
+            }
+        });
+
+        if (!unknown.isEmpty()) {
+            tagRepository.findBySlugIn(unknown).forEach(tag -> tagIds.put(tag.getSlug(), tag.getId()));
+            for (String slug : unknown) {
+                if (!tagIds.containsKey(slug)) {
+                    Tag tag = Tag.builder()
+                            .name(namesBySlug.get(slug))
+                            .slug(slug)
+                            .build();
+                    entityManager.persist(tag);
+                    tagIds.put(slug, tag.getId());
+                    result.tagsCreated++;
+                }
+            }
+        }
+        result.tags = tagIds;
+        return tagIds;
+    }
+
+    private Post toPost(ImportPostRequest request, String slug) {
+        Post post = Post.builder()
+                .title(request.getTitle())
+                .slug(slug)
+                .summary(request.getSummary())
+                .content(request.getContent())
+                .summaryHtml(markdownService.translateToHtml(request.getSummary()))
+                .contentHtml(markdownService.translateToHtml(request.getContent()))
+                .excerpt(markdownService.toExcerpt(request.getContent()))
+                .published(request.isPublished())
+                .build();
+
+        if (request.getComments() != null) {
+            int approved = 0;
+            for (ImportCommentRequest comment : request.getComments()) {
+                post.addComment(Comment.builder()
+                        .authorName(comment.getAuthorName())
+                        .authorEmail(comment.getAuthorEmail())
+                        .content(comment.getContent())
+                        .approved(comment.isApproved())
+                        .build());
+                if (comment.isApproved()) {
+                    approved++;
+                }
+            }
+            post.setApprovedCommentCount(approved);
+        }
+        return post;
+    }
+
+    /**
+     * Splits its input at line feeds like {@link java.io.BufferedReader#readLine()}, but holds at
+     * most {@code maxLength} characters of a line: the rest of a longer line is read and discarded.
+     */
+    static final class BoundedLineReader {
+
+        private final Reader in;
+        private final int maxLength;
+        private final char[] buffer = new char[8192];
+        private final StringBuilder current = new StringBuilder();
+        private int position;
+        private int limit;
+        private boolean tooLong;
+
+        BoundedLineReader(Reader in, int maxLength) {
+            this.in = in;
+            this.maxLength = maxLength;
+        }
+
+        /** Reads the next line; false at the end of the input. */
+        boolean next() throws IOException {
+            current.setLength(0);
+            tooLong = false;
+            boolean read = false;
+            while (true) {
+                if (position == limit) {
+                    limit = Math.max(in.read(buffer, 0, buffer.length), 0);
+                    position = 0;
+                    if (limit == 0) {
+                        return read;
+                    }
+                }
+                read = true;
+                int start = position;
+                while (position < limit && buffer[position] != '\n') {
+                    position++;
+                }
+                append(start, position);
+                if (position < limit) {
+                    position++;
+                    return true;
+                }
+            }
+        }
+
+        /** The line last read without its terminator, or null when it was longer than the limit. */
+        String line() {
+            if (tooLong) {
+                return null;
+            }
+            int length = current.length();
+            return length > 0 && current.charAt(length - 1) == '\r'
+                    ? current.substring(0, length - 1)
+                    : current.toString();
+        }
+
+        private void append(int start, int end) {
+            if (tooLong) {
+                return;
+            }
+            if (current.length() + end - start > maxLength) {
+                tooLong = true;
+                current.setLength(0);
+                current.trimToSize();
+            } else {
+                current.append(buffer, start, end - start);
+            }
+        }
+    }
+
+    private static final class ChunkResult {
+        private long posts;
+        private long comments;
+        private long tagged;
+        private long tagsCreated;
+        private Map<String, Long> tags = Map.of();
+        private final List<ImportResponse.LineError> rejected = new ArrayList<>();
+    }
+
+    private final class Progress {
+        private long lines;
+        private long posts;
+        private long comments;
+        private long tagged;
+        private long tagsCreated;
+        private long failed;
+        private final List<ImportResponse.LineError> errors = new ArrayList<>();
+
+        void add(ChunkResult result, Map<String, Long> knownTags) {
+            posts += result.posts;
+            comments += result.comments;
+            tagged += result.tagged;
+            tagsCreated += result.tagsCreated;
+            knownTags.putAll(result.tags);
+            result.rejected.forEach(error -> fail(error.getLine(), error.getMessage()));
+        }
+
+        void fail(long line, String message) {
+            failed++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ImportResponse.LineError(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.dto.response.CursorPageResponse;
+import com.raptiye.blog.dto.response.PostSearchResponse;
+import com.raptiye.blog.search.PostSearchEngine;
+import com.raptiye.blog.util.RankCursor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PostSearchService {
+
+    private static final int MAX_PAGE_SIZE = 50;
+
+    private final PostSearchEngine postSearchEngine;
+
+    public CursorPageResponse<PostSearchResponse> search(String query, String cursor, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        RankCursor position = cursor == null || cursor.isBlank() ? RankCursor.FIRST : RankCursor.decode(cursor);
+
+        List<PostSearchResponse> hits = postSearchEngine.search(
+                query.trim(), position.rank(), position.id(), pageSize + 1);
+
+        boolean hasNext = hits.size() > pageSize;
+        List<PostSearchResponse> content = hasNext ? hits.subList(0, pageSize) : hits;
+
+        String nextCursor = null;
+        if (hasNext) {
+            PostSearchResponse last = content.get(content.size() - 1);
+            nextCursor = new RankCursor(last.getRank(), last.getId()).encode();
+        }
+
+        return CursorPageResponse.<PostSearchResponse>builder()
+                .content(content)
+                .limit(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -4,17 +4,36 @@ import com.raptiye.blog.domain.Post;
 import com.raptiye.blog.domain.Tag;
 import com.raptiye.blog.dto.request.CreatePostRequest;
 import com.raptiye.blog.dto.request.UpdatePostRequest;
+import com.raptiye.blog.dto.response.CommentResponse;
+import com.raptiye.blog.dto.response.CursorPageResponse;
 import com.raptiye.blog.dto.response.PostDetailResponse;
 import com.raptiye.blog.dto.response.PostResponse;
+import com.raptiye.blog.dto.response.TagResponse;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.PostTagsChangedEvent;
 import com.raptiye.blog.exception.ResourceNotFoundException;
 import com.raptiye.blog.mapper.PostMapper;
 import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.repository.RelatedPostRepository;
+import com.raptiye.blog.search.TagBitmapIndex;
+import com.raptiye.blog.util.KeysetCursor;
+import com.raptiye.blog.util.MarkdownService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,43 +41,147 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class PostService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Comments embedded in a post detail; older ones are paged from GET /api/posts/{id}/comments
+    private static final int DETAIL_COMMENT_LIMIT = 20;
+
+    // Resolves to no bitmap, so an unknown slug matches nothing instead of being an error
+    private static final long UNKNOWN_TAG_ID = -1L;
+
     private final PostRepository postRepository;
     private final TagService tagService;
     private final PostMapper postMapper;
+    private final MarkdownService markdownService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TagBitmapIndex tagBitmapIndex;
+    private final RelatedPostRepository relatedPostRepository;
+    private final CommentService commentService;
 
-    public List<PostResponse> getAllPosts() {
-        return postRepository.findAllByOrderByCreatedAtDesc().stream()
-                .map(postMapper::toResponse)
-                .collect(Collectors.toList());
+    public CursorPageResponse<PostResponse> getAllPosts(String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<Post> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepository.findAllByOrderByCreatedAtDescIdDesc(fetchLimit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            posts = postRepository.findAllBefore(position.createdAt(), position.id(), fetchLimit);
+        }
+        return toPage(posts, pageSize);
     }
 
-    public List<PostResponse> getPublishedPosts() {
-        return postRepository.findByPublishedTrueOrderByCreatedAtDesc().stream()
-                .map(postMapper::toResponse)
-                .collect(Collectors.toList());
+    public CursorPageResponse<PostResponse> getPublishedPosts(String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<Post> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepository.findByPublishedTrueOrderByCreatedAtDescIdDesc(fetchLimit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            posts = postRepository.findPublishedBefore(position.createdAt(), position.id(), fetchLimit);
+        }
+        return toPage(posts, pageSize);
     }
 
     public List<PostResponse> getPublishedPostSnippets() {
-        int snippetLength = 350;
-        return postRepository.findPublishedPostResponsesWithSnippet(snippetLength);
+        return postRepository.findPublishedPostExcerpts();
+    }
+
+    public List<String> getPublishedPostSlugs() {
+        return postRepository.findPublishedSlugs();
     }
 
     public PostDetailResponse getPostBySlug(String slug, boolean includeUnapprovedComments) {
+        return getPostBySlug(slug, includeUnapprovedComments, null);
+    }
+
+    /**
+     * The post with the page of its comments that starts after {@code commentsCursor}, or the
+     * newest page when it is {@code null}.
+     */
+    public PostDetailResponse getPostBySlug(String slug, boolean includeUnapprovedComments, String commentsCursor) {
         Post post = postRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "slug", slug));
-        return postMapper.toDetailResponse(post, includeUnapprovedComments);
+        return toDetailResponse(post, includeUnapprovedComments, commentsCursor);
     }
 
     public PostDetailResponse getPostById(Long id, boolean includeUnapprovedComments) {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", id));
-        return postMapper.toDetailResponse(post, includeUnapprovedComments);
+        return toDetailResponse(post, includeUnapprovedComments, null);
     }
 
-    public List<PostResponse> getPostsByTagSlug(String tagSlug) {
-        return postRepository.findByTagSlug(tagSlug).stream()
-                .map(postMapper::toResponse)
+    // Served from the precomputed related_posts table maintained by RelatedPostService
+    public List<PostResponse> getRelatedPosts(String slug, int limit) {
+        Post post = postRepository.findBySlug(slug)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "slug", slug));
+        return getRelatedPosts(post.getId(), limit);
+    }
+
+    public List<PostResponse> getRelatedPosts(Long postId, int limit) {
+        int size = Math.max(1, Math.min(limit, RelatedPostService.NEIGHBOURS_PER_POST));
+        return toResponses(relatedPostRepository.findPublishedRelatedPosts(postId, Limit.of(size)));
+    }
+
+    public CursorPageResponse<PostResponse> getPostsByTagSlug(String tagSlug, String cursor, int limit) {
+        int pageSize = clampPageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<Post> posts;
+        if (cursor == null || cursor.isBlank()) {
+            posts = postRepository.findByTagSlug(tagSlug, fetchLimit);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            posts = postRepository.findByTagSlugBefore(tagSlug, position.createdAt(), position.id(), fetchLimit);
+        }
+        return toPage(posts, pageSize);
+    }
+
+    /**
+     * Published posts filtered by a tag expression. Slugs in {@code tagExpressions} are combined
+     * with AND ({@code mode=all}) or OR ({@code mode=any}); a {@code -} prefix excludes a tag.
+     * Only the ids of the requested page are loaded.
+     *
+     * <p>Unlike the other lists, which follow {@code createdAt}, these pages are ordered by id,
+     * newest first, because the bitmap index only knows ids. Ids follow insertion order, so the two
+     * orders differ only for posts imported with an earlier {@code createdAt}. Only the id of the
+     * cursor is used.
+     */
+    public CursorPageResponse<PostResponse> getPublishedPostsByTags(List<String> tagExpressions, String mode,
+            String cursor, int limit) {
+        boolean matchAll;
+        if ("all".equalsIgnoreCase(mode)) {
+            matchAll = true;
+        } else if ("any".equalsIgnoreCase(mode)) {
+            matchAll = false;
+        } else {
+            throw new IllegalArgumentException("Tag filter mode must be 'all' or 'any'");
+        }
+
+        Map<String, Long> tagIdsBySlug = tagService.getAllTags().stream()
+                .collect(Collectors.toMap(TagResponse::getSlug, TagResponse::getId));
+        List<Long> included = new ArrayList<>();
+        List<Long> excluded = new ArrayList<>();
+        for (String expression : tagExpressions) {
+            String slug = expression.trim().toLowerCase(Locale.ROOT);
+            if (slug.startsWith("-")) {
+                excluded.add(tagIdsBySlug.getOrDefault(slug.substring(1), UNKNOWN_TAG_ID));
+            } else if (!slug.isEmpty()) {
+                included.add(tagIdsBySlug.getOrDefault(slug, UNKNOWN_TAG_ID));
+            }
+        }
+
+        int pageSize = clampPageSize(limit);
+        long beforeId = cursor == null || cursor.isBlank() ? Long.MAX_VALUE : KeysetCursor.decode(cursor).id();
+        List<Long> ids = tagBitmapIndex.findPublishedPostIds(included, excluded, matchAll, beforeId, pageSize + 1);
+
+        Map<Long, Post> postsById = postRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Post::getId, Function.identity()));
+        List<Post> posts = ids.stream()
+                .map(postsById::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        return toPage(posts, pageSize);
     }
 
     @Transactional
@@ -67,6 +190,9 @@ public class PostService {
                 .title(request.getTitle())
                 .summary(request.getSummary())
                 .content(request.getContent())
+                .summaryHtml(markdownService.translateToHtml(request.getSummary()))
+                .contentHtml(markdownService.translateToHtml(request.getContent()))
+                .excerpt(markdownService.toExcerpt(request.getContent()))
                 .published(false)
                 .build();
 
@@ -79,10 +205,15 @@ public class PostService {
         }
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostChangedEvent.of(savedPost));
+        if (!savedPost.getTags().isEmpty()) {
+            eventPublisher.publishEvent(PostTagsChangedEvent.of(savedPost));
+        }
         return postMapper.toResponse(savedPost);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = TagService.TAG_CLOUD_CACHE, allEntries = true)
     public PostResponse updatePost(Long id, UpdatePostRequest request) {
         Post post = postRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", id));
@@ -90,21 +221,28 @@ public class PostService {
         if (request.getTitle() != null) {
             post.setTitle(request.getTitle());
         }
-        if (request.getSummary() != null) {
+        // Markdown is only re-rendered when the source text actually changes
+        if (request.getSummary() != null && !request.getSummary().equals(post.getSummary())) {
             post.setSummary(request.getSummary());
+            post.setSummaryHtml(markdownService.translateToHtml(request.getSummary()));
         }
-        if (request.getContent() != null) {
+        if (request.getContent() != null && !request.getContent().equals(post.getContent())) {
             post.setContent(request.getContent());
+            post.setContentHtml(markdownService.translateToHtml(request.getContent()));
+            post.setExcerpt(markdownService.toExcerpt(request.getContent()));
         }
+        boolean publishedChanged = request.getPublished() != null && request.getPublished() != post.isPublished();
         if (request.getPublished() != null) {
             post.setPublished(request.getPublished());
         }
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostChangedEvent.of(savedPost, publishedChanged));
         return postMapper.toResponse(savedPost);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = TagService.TAG_CLOUD_CACHE, allEntries = true)
     public PostResponse addTagToPost(Long postId, Long tagId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
@@ -113,10 +251,12 @@ public class PostService {
         post.addTag(tag);
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostTagsChangedEvent.of(savedPost));
         return postMapper.toResponse(savedPost);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = TagService.TAG_CLOUD_CACHE, allEntries = true)
     public PostResponse removeTagFromPost(Long postId, Long tagId) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new ResourceNotFoundException("Post", "id", postId));
@@ -125,14 +265,68 @@ public class PostService {
         post.removeTag(tag);
 
         Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(PostTagsChangedEvent.of(savedPost));
         return postMapper.toResponse(savedPost);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = TagService.TAG_CLOUD_CACHE, allEntries = true)
     public void deletePost(Long id) {
-        if (!postRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Post", "id", id);
+        Post post = postRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Post", "id", id));
+        PostDeletedEvent event = PostDeletedEvent.of(post);
+        postRepository.delete(post);
+        eventPublisher.publishEvent(event);
+    }
+
+    // Only one page of comments is read; the approved total comes from the counter on the post row
+    private PostDetailResponse toDetailResponse(Post post, boolean includeUnapprovedComments, String commentsCursor) {
+        CursorPageResponse<CommentResponse> comments = commentService.getCommentsByPostId(post.getId(),
+                includeUnapprovedComments, commentsCursor, DETAIL_COMMENT_LIMIT);
+        long commentCount = includeUnapprovedComments
+                ? commentService.countCommentsByPostId(post.getId())
+                : post.getApprovedCommentCount();
+        return postMapper.toDetailResponse(post, comments, commentCount);
+    }
+
+    private int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    // One extra row is fetched so the presence of a next page is known without a COUNT query
+    private CursorPageResponse<PostResponse> toPage(List<Post> posts, int pageSize) {
+        boolean hasNext = posts.size() > pageSize;
+        List<PostResponse> content = toResponses(hasNext ? posts.subList(0, pageSize) : posts);
+
+        String nextCursor = null;
+        if (hasNext) {
+            PostResponse last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
         }
-        postRepository.deleteById(id);
+
+        return CursorPageResponse.<PostResponse>builder()
+                .content(content)
+                .limit(pageSize)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // One tag query per page regardless of its size instead of a lazy load per post
+    private List<PostResponse> toResponses(List<Post> posts) {
+        if (posts.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Long> postIds = posts.stream()
+                .map(Post::getId)
+                .collect(Collectors.toList());
+
+        Map<Long, List<Tag>> tagsByPostId = postRepository.findTagsByPostIds(postIds).stream()
+                .collect(Collectors.groupingBy(
+                        PostRepository.PostTag::getPostId,
+                        Collectors.mapping(PostRepository.PostTag::getTag, Collectors.toList())));
+
+        return postMapper.toResponses(posts, tagsByPostId);
     }
 }
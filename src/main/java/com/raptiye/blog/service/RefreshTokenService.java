@@ -0,0 +1,114 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.domain.RefreshToken;
+import com.raptiye.blog.domain.User;
+import com.raptiye.blog.exception.InvalidTokenException;
+import com.raptiye.blog.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates opaque refresh tokens. Each refresh consumes the presented token and returns a
+ * new one of the same family; presenting a token that was already consumed means it leaked, so the
+ * whole family is revoked.
+ */
+@Slf4j
+@Service
+@Transactional(readOnly = true)
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final Duration refreshTokenTtl;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+            @Value("${jwt.refresh.expiration:30d}") Duration refreshTokenTtl) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    @Transactional
+    public String issue(User user) {
+        return create(user, UUID.randomUUID());
+    }
+
+    // Reuse detection must survive the rejection, so the family revocation is not rolled back
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public Rotation rotate(String presentedToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(presentedToken))
+                .orElseThrow(() -> new InvalidTokenException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (current.isRevoked()) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Refresh token reuse for user {}; revoked {} tokens of its family",
+                    current.getUser().getId(), revoked);
+            throw new InvalidTokenException("Invalid refresh token");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidTokenException("Refresh token expired");
+        }
+
+        current.setRevokedAt(now);
+        refreshTokenRepository.save(current);
+        return new Rotation(current.getUser(), create(current.getUser(), current.getFamilyId()));
+    }
+
+    @Transactional
+    public void revoke(String presentedToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(presentedToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+    }
+
+    @Scheduled(cron = "${jwt.refresh.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.info("Purged {} expired refresh tokens", purged);
+    }
+
+    private String create(User user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .expiresAt(LocalDateTime.now().plus(refreshTokenTtl))
+                .build());
+        return token;
+    }
+
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
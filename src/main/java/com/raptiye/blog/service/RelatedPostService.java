@@ -0,0 +1,284 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.domain.RelatedPost;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.PostTagsChangedEvent;
+import com.raptiye.blog.event.RelatedPostsChangedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
+import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.repository.RelatedPostRepository;
+import com.raptiye.blog.repository.TagRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maintains the {@code related_posts} table: the top {@link #NEIGHBOURS_PER_POST} posts by weighted
+ * Jaccard similarity of tag sets, where each tag weighs {@code ln(1 + published / publishedWithTag)}
+ * so rare tags count for more. Only published posts are ranked and given lists. Only posts affected by a tag
+ * change, a publish or unpublish, or a post deletion are recomputed; a deleted tag changes the
+ * weights of every post and triggers a full rebuild. Both run on one background thread, so the
+ * writing request never pays for them and a burst of changes collapses into one refresh.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RelatedPostService {
+
+    public static final int NEIGHBOURS_PER_POST = 10;
+
+    private final PostRepository postRepository;
+    private final TagRepository tagRepository;
+    private final RelatedPostRepository relatedPostRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "related-posts-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+    // Posts whose neighbourhood changed and tags of deleted posts, drained by the next refresh
+    private final Set<Long> pendingPosts = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingDeletedPostTags = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void buildIfEmpty() {
+        if (relatedPostRepository.count() == 0) {
+            rebuildAll();
+        }
+    }
+
+    @Transactional
+    public void rebuildAll() {
+        Map<Long, Set<Long>> tagsByPost = new HashMap<>();
+        try (Stream<PostRepository.PostTagId> rows = postRepository.streamPublishedPostTagIds()) {
+            rows.forEach(row -> tagsByPost.computeIfAbsent(row.getPostId(), id -> new HashSet<>()).add(row.getTagId()));
+        }
+
+        relatedPostRepository.deleteAllRows();
+        List<RelatedPost> rows = computeNeighbours(tagsByPost, tagWeights(), tagsByPost.keySet());
+        relatedPostRepository.saveAll(rows);
+        eventPublisher.publishEvent(new RelatedPostsChangedEvent(Set.copyOf(tagsByPost.keySet())));
+        log.info("Precomputed {} related post links for {} tagged posts", rows.size(), tagsByPost.size());
+    }
+
+    @TransactionalEventListener
+    public void onPostTagsChanged(PostTagsChangedEvent event) {
+        scheduleRefresh(Set.of(event.postId()), Set.of());
+    }
+
+    // Publishing adds the post to its neighbours' candidates, unpublishing removes it from their lists
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        if (event.publishedChanged() && !event.tagIds().isEmpty()) {
+            scheduleRefresh(Set.of(event.postId()), Set.of());
+        }
+    }
+
+    // Every post that shared a tag with the deleted one is recomputed, which covers the posts listing it
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        if (!event.tagIds().isEmpty()) {
+            scheduleRefresh(Set.of(), event.tagIds());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onTagDeleted(TagDeletedEvent event) {
+        scheduleRebuild();
+    }
+
+    /**
+     * Queues a full rebuild on the background thread and returns at once. Requests arriving while a
+     * rebuild waits for the thread collapse into that rebuild.
+     */
+    public void scheduleRebuild() {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(this::rebuildInBackground);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void rebuildInBackground() {
+        rebuildScheduled.set(false);
+        try {
+            transactionTemplate.executeWithoutResult(status -> rebuildAll());
+        } catch (RuntimeException e) {
+            log.error("Rebuilding related posts failed; lists stay as they were", e);
+        }
+    }
+
+    // Changes arriving while a refresh waits for the thread are drained by that refresh
+    private void scheduleRefresh(Set<Long> postIds, Set<Long> deletedPostTags) {
+        pendingPosts.addAll(postIds);
+        pendingDeletedPostTags.addAll(deletedPostTags);
+        if (refreshScheduled.compareAndSet(false, true)) {
+            rebuilder.execute(this::refreshInBackground);
+        }
+    }
+
+    // The flag is cleared before draining, so a change added after the drain schedules a new refresh
+    private void refreshInBackground() {
+        refreshScheduled.set(false);
+        Set<Long> postIds = drain(pendingPosts);
+        Set<Long> deletedPostTags = drain(pendingDeletedPostTags);
+        try {
+            transactionTemplate.executeWithoutResult(status -> recompute(postIds, deletedPostTags));
+        } catch (RuntimeException e) {
+            log.error("Refreshing related posts of {} failed; lists stay as they were", postIds, e);
+        }
+    }
+
+    private static Set<Long> drain(Set<Long> pending) {
+        Set<Long> drained = new HashSet<>();
+        for (Iterator<Long> it = pending.iterator(); it.hasNext(); ) {
+            drained.add(it.next());
+            it.remove();
+        }
+        return drained;
+    }
+
+    /**
+     * Recomputes the neighbours of {@code postIds}, of every post that currently lists one of them
+     * and of every post sharing one of their tags or one of {@code deletedPostTags}, the tags of
+     * deleted posts, since only their lists can change.
+     */
+    @Transactional
+    public void recompute(Set<Long> postIds, Set<Long> deletedPostTags) {
+        Set<Long> seeds = new HashSet<>(postIds);
+        if (!postIds.isEmpty()) {
+            seeds.addAll(relatedPostRepository.findPostIdsRelatedTo(postIds));
+        }
+
+        Set<Long> sharedTags = new HashSet<>(deletedPostTags);
+        Set<Long> seedTags = new HashSet<>(deletedPostTags);
+        if (!seeds.isEmpty()) {
+            for (PostRepository.PostTagId row : postRepository.findTagIdsByPostIds(seeds)) {
+                seedTags.add(row.getTagId());
+                if (postIds.contains(row.getPostId())) {
+                    sharedTags.add(row.getTagId());
+                }
+            }
+        }
+        refresh(seeds, sharedTags, seedTags);
+    }
+
+    /**
+     * Rewrites the lists of {@code seeds} and of every post carrying one of {@code sharedTags}.
+     * Candidates are read for {@code seedTags} and, when the affected posts carry further tags,
+     * for those as well.
+     */
+    private void refresh(Set<Long> seeds, Set<Long> sharedTags, Set<Long> seedTags) {
+        Map<Long, Set<Long>> tagged = seedTags.isEmpty() ? Map.of() : tagsOfPostsTaggedWith(seedTags);
+
+        Set<Long> affected = new HashSet<>(seeds);
+        tagged.forEach((id, tags) -> {
+            if (tags.stream().anyMatch(sharedTags::contains)) {
+                affected.add(id);
+            }
+        });
+        if (affected.isEmpty()) {
+            return;
+        }
+
+        Set<Long> candidateTags = new HashSet<>();
+        affected.forEach(id -> candidateTags.addAll(tagged.getOrDefault(id, Set.of())));
+        Map<Long, Set<Long>> tagsByPost = seedTags.containsAll(candidateTags)
+                ? tagged
+                : tagsOfPostsTaggedWith(candidateTags);
+
+        relatedPostRepository.deleteByPostIds(affected);
+        relatedPostRepository.saveAll(computeNeighbours(tagsByPost, tagWeights(), affected));
+        eventPublisher.publishEvent(new RelatedPostsChangedEvent(affected));
+    }
+
+    // Complete tag sets of every published post carrying at least one of tagIds
+    private Map<Long, Set<Long>> tagsOfPostsTaggedWith(Set<Long> tagIds) {
+        Map<Long, Set<Long>> tagsByPost = new HashMap<>();
+        for (PostRepository.PostTagId row : postRepository.findTagIdsOfPublishedPostsTaggedWith(tagIds)) {
+            tagsByPost.computeIfAbsent(row.getPostId(), id -> new HashSet<>()).add(row.getTagId());
+        }
+        return tagsByPost;
+    }
+
+    private Map<Long, Double> tagWeights() {
+        double totalPosts = Math.max(1, postRepository.countByPublishedTrue());
+        return tagRepository.findPublishedPostCountsByTag().stream()
+                .collect(Collectors.toMap(
+                        TagRepository.TagUsage::getTagId,
+                        usage -> Math.log(1 + totalPosts / usage.getPostCount())));
+    }
+
+    // Scores every candidate sharing a tag with each target through an in-memory tag -> posts index
+    static List<RelatedPost> computeNeighbours(Map<Long, Set<Long>> tagsByPost, Map<Long, Double> weights,
+            Collection<Long> targets) {
+        Map<Long, List<Long>> postsByTag = new HashMap<>();
+        tagsByPost.forEach((postId, tags) -> tags.forEach(
+                tagId -> postsByTag.computeIfAbsent(tagId, id -> new ArrayList<>()).add(postId)));
+
+        Map<Long, Double> totalWeights = new HashMap<>();
+        tagsByPost.forEach((postId, tags) -> totalWeights.put(postId,
+                tags.stream().mapToDouble(tagId -> weights.getOrDefault(tagId, 0.0)).sum()));
+
+        List<RelatedPost> rows = new ArrayList<>();
+        for (Long postId : targets) {
+            Set<Long> tags = tagsByPost.getOrDefault(postId, Set.of());
+            Map<Long, Double> shared = new HashMap<>();
+            for (Long tagId : tags) {
+                double weight = weights.getOrDefault(tagId, 0.0);
+                for (Long candidate : postsByTag.getOrDefault(tagId, List.of())) {
+                    if (!candidate.equals(postId)) {
+                        shared.merge(candidate, weight, Double::sum);
+                    }
+                }
+            }
+
+            double ownWeight = totalWeights.getOrDefault(postId, 0.0);
+            shared.entrySet().stream()
+                    .map(entry -> {
+                        double union = ownWeight + totalWeights.get(entry.getKey()) - entry.getValue();
+                        float score = union > 0 ? (float) (entry.getValue() / union) : 0f;
+                        return new RelatedPost(postId, entry.getKey(), score, null, null);
+                    })
+                    .filter(row -> row.getScore() > 0)
+                    .sorted(Comparator.comparing(RelatedPost::getScore).reversed()
+                            .thenComparing(RelatedPost::getRelatedPostId, Comparator.reverseOrder()))
+                    .limit(NEIGHBOURS_PER_POST)
+                    .forEach(rows::add);
+        }
+        return rows;
+    }
+}
@@ -3,10 +3,15 @@ package com.raptiye.blog.service;
 import com.raptiye.blog.domain.Tag;
 import com.raptiye.blog.dto.request.CreateTagRequest;
 import com.raptiye.blog.dto.response.TagResponse;
+import com.raptiye.blog.event.TagCreatedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
 import com.raptiye.blog.exception.ResourceNotFoundException;
 import com.raptiye.blog.mapper.TagMapper;
 import com.raptiye.blog.repository.TagRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -18,28 +23,34 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class TagService {
 
+    // Tag cloud with published post counts; evicted by every write that can change a count
+    public static final String TAG_CLOUD_CACHE = "tagCloud";
+
     private final TagRepository tagRepository;
     private final TagMapper tagMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Cacheable(TAG_CLOUD_CACHE)
     public List<TagResponse> getAllTags() {
-        return tagRepository.findAll().stream()
-                .map(tagMapper::toResponse)
-                .collect(Collectors.toList());
+        return tagRepository.findAllWithPublishedPostCount().stream()
+                .map(row -> tagMapper.toResponse(row.getTag(), row.getPostCount()))
+                .collect(Collectors.toUnmodifiableList());
     }
 
     public TagResponse getTagBySlug(String slug) {
         Tag tag = tagRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Tag", "slug", slug));
-        return tagMapper.toResponse(tag);
+        return tagMapper.toResponse(tag, tagRepository.countPublishedPostsByTagId(tag.getId()));
     }
 
     public TagResponse getTagById(Long id) {
         Tag tag = tagRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Tag", "id", id));
-        return tagMapper.toResponse(tag);
+        return tagMapper.toResponse(tag, tagRepository.countPublishedPostsByTagId(tag.getId()));
     }
 
     @Transactional
+    @CacheEvict(cacheNames = TAG_CLOUD_CACHE, allEntries = true)
     public TagResponse createTag(CreateTagRequest request) {
         if (tagRepository.existsByName(request.getName())) {
             throw new IllegalArgumentException("Tag with name '" + request.getName() + "' already exists");
@@ -50,15 +61,18 @@ public class TagService {
                 .build();
 
         Tag savedTag = tagRepository.save(tag);
-        return tagMapper.toResponse(savedTag);
+        eventPublisher.publishEvent(new TagCreatedEvent(savedTag.getId()));
+        return tagMapper.toResponse(savedTag, 0);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = TAG_CLOUD_CACHE, allEntries = true)
     public void deleteTag(Long id) {
         if (!tagRepository.existsById(id)) {
             throw new ResourceNotFoundException("Tag", "id", id);
         }
         tagRepository.deleteById(id);
+        eventPublisher.publishEvent(new TagDeletedEvent(id));
     }
 
     // Internal use by PostService
@@ -0,0 +1,60 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.domain.Role;
+import com.raptiye.blog.domain.User;
+import com.raptiye.blog.dto.response.UserResponse;
+import com.raptiye.blog.event.UserTokensRevokedEvent;
+import com.raptiye.blog.exception.ResourceNotFoundException;
+import com.raptiye.blog.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Account changes that must invalidate issued access tokens, since those carry the role as a claim.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class UserService {
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefreshTokenService refreshTokenService;
+
+    @Transactional
+    public UserResponse changeRole(Long id, Role role) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+
+        if (user.getRole() != role) {
+            user.setRole(role);
+            revoke(user);
+        }
+        return toResponse(user);
+    }
+
+    @Transactional
+    public void revokeTokens(Long id) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
+        revoke(user);
+        refreshTokenService.revokeAllForUser(user.getId());
+    }
+
+    private void revoke(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserTokensRevokedEvent(user.getId()));
+    }
+
+    private UserResponse toResponse(User user) {
+        return UserResponse.builder()
+                .id(user.getId())
+                .username(user.getUsername())
+                .email(user.getEmail())
+                .role(user.getRole().name())
+                .build();
+    }
+}
@@ -1,25 +1,52 @@
 package com.raptiye.blog.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.commonmark.Extension;
 import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.node.AbstractVisitor;
+import org.commonmark.node.Block;
+import org.commonmark.node.Code;
+import org.commonmark.node.CustomNode;
+import org.commonmark.node.FencedCodeBlock;
+import org.commonmark.node.HardLineBreak;
+import org.commonmark.node.HtmlBlock;
+import org.commonmark.node.HtmlInline;
+import org.commonmark.node.IndentedCodeBlock;
 import org.commonmark.node.Node;
+import org.commonmark.node.SoftLineBreak;
+import org.commonmark.node.Text;
 import org.commonmark.parser.Parser;
 import org.commonmark.renderer.html.HtmlRenderer;
 import org.owasp.html.PolicyFactory;
 import org.owasp.html.Sanitizers;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.regex.Pattern;
 
 @Service
 public class MarkdownService {
 
+    public static final int EXCERPT_MAX_LENGTH = 350;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final Parser parser;
     private final HtmlRenderer renderer;
     private final PolicyFactory sanitizer;
+    private final Cache<String, String> htmlCache;
 
-    public MarkdownService() {
+    public MarkdownService(MeterRegistry meterRegistry,
+            @Value("${app.markdown.cache.max-bytes:33554432}") long maxCacheBytes) {
         List<Extension> extensions = Collections.singletonList(TablesExtension.create());
 
         this.parser = Parser.builder()
@@ -40,6 +67,15 @@ public class MarkdownService {
                         .allowElements("pre", "code")
                         .allowAttributes("class").onElements("code") // for potential syntax highlighting
                         .toFactory());
+
+        // Sanitized HTML keyed by SHA-256 of the markdown, bounded by approximate retained bytes
+        // (UTF-16 upper bound) and evicted with Caffeine's W-TinyLFU policy
+        this.htmlCache = Caffeine.newBuilder()
+                .maximumWeight(maxCacheBytes)
+                .weigher((String key, String html) -> (key.length() + html.length()) * Character.BYTES)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, htmlCache, "markdownHtml");
     }
 
     public String translateToHtml(String markdown) {
@@ -47,9 +83,93 @@ public class MarkdownService {
             return "";
         }
 
+        return htmlCache.get(contentHash(markdown), key -> render(markdown));
+    }
+
+    // Visible text of the document (no markdown syntax, raw HTML, link targets or code blocks),
+    // cut at a word boundary
+    public String toExcerpt(String markdown) {
+        if (markdown == null || markdown.trim().isEmpty()) {
+            return "";
+        }
+
+        PlainTextCollector collector = new PlainTextCollector();
+        parser.parse(markdown).accept(collector);
+        String text = WHITESPACE.matcher(collector.text).replaceAll(" ").trim();
+        if (text.length() <= EXCERPT_MAX_LENGTH) {
+            return text;
+        }
+
+        int cut = text.lastIndexOf(' ', EXCERPT_MAX_LENGTH);
+        if (cut <= 0) {
+            cut = EXCERPT_MAX_LENGTH;
+        }
+        return text.substring(0, cut).stripTrailing() + "…";
+    }
+
+    private String render(String markdown) {
         Node document = parser.parse(markdown);
         String unsafeHtml = renderer.render(document);
 
         return sanitizer.sanitize(unsafeHtml);
     }
+
+    private static String contentHash(String markdown) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(markdown.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class PlainTextCollector extends AbstractVisitor {
+
+        private final StringBuilder text = new StringBuilder();
+
+        @Override
+        public void visit(Text node) {
+            text.append(node.getLiteral());
+        }
+
+        @Override
+        public void visit(Code node) {
+            text.append(node.getLiteral());
+        }
+
+        @Override
+        public void visit(SoftLineBreak node) {
+            text.append(' ');
+        }
+
+        @Override
+        public void visit(HardLineBreak node) {
+            text.append(' ');
+        }
+
+        @Override
+        public void visit(FencedCodeBlock node) {
+        }
+
+        @Override
+        public void visit(IndentedCodeBlock node) {
+        }
+
+        @Override
+        public void visit(HtmlBlock node) {
+        }
+
+        @Override
+        public void visit(HtmlInline node) {
+        }
+
+        // Keeps words from adjacent blocks and table cells apart
+        @Override
+        protected void visitChildren(Node parent) {
+            super.visitChildren(parent);
+            if (parent instanceof Block || parent instanceof CustomNode) {
+                text.append(' ');
+            }
+        }
+    }
 }
@@ -0,0 +1,35 @@
+package com.raptiye.blog.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque position in a list ordered by {@code (rank DESC, id DESC)}, used by search results.
+ */
+public record RankCursor(float rank, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    // Sorts before every real rank, so the first page needs no separate query
+    public static final RankCursor FIRST = new RankCursor(Float.MAX_VALUE, Long.MAX_VALUE);
+
+    public String encode() {
+        String raw = rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static RankCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new RankCursor(
+                    Float.parseFloat(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
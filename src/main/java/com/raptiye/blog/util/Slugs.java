@@ -0,0 +1,20 @@
+package com.raptiye.blog.util;
+
+/**
+ * URL slugs of post titles and tag names, e.g. {@code "Spring Boot 3"} becomes {@code "spring-boot-3"}.
+ */
+public final class Slugs {
+
+    private Slugs() {
+    }
+
+    public static String of(String text) {
+        if (text == null)
+            return "";
+        return text.toLowerCase()
+                .replaceAll("[^a-z0-9\\s-]", "")
+                .replaceAll("\\s+", "-")
+                .replaceAll("-+", "-")
+                .trim();
+    }
+}
@@ -0,0 +1,149 @@
+package com.raptiye.blog.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.raptiye.blog.event.CommentChangedEvent;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.PostTagsChangedEvent;
+import com.raptiye.blog.event.RelatedPostsChangedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Rendered HTML of the public pages, keyed by path and page cursor and served by
+ * {@link PageCacheFilter}. Pages declare which posts they show through {@link #dependOnPosts} or
+ * {@link #dependOnAllPosts}; entries are dropped when one of those posts changes. Only this
+ * instance's writes reach the cache, so it is opt-in ({@code app.page-cache.enabled}) and meant for
+ * single-node deployments.
+ */
+@Component
+@ConditionalOnProperty(name = "app.page-cache.enabled", havingValue = "true")
+public class PageCache {
+
+    static final String DEPENDENCIES_ATTRIBUTE = PageCache.class.getName() + ".dependencies";
+
+    private final Cache<String, CachedPage> pages;
+    // Not a monitor: request threads may be virtual, and a contended monitor pins their carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private long generation;
+
+    public PageCache(MeterRegistry meterRegistry,
+            @Value("${app.page-cache.max-bytes:67108864}") long maxBytes) {
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, CachedPage page) -> key.length() * 2 + page.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "pageCache");
+    }
+
+    /**
+     * Marks the current page as showing exactly these posts.
+     */
+    public static void dependOnPosts(WebRequest request, Collection<Long> postIds) {
+        request.setAttribute(DEPENDENCIES_ATTRIBUTE, new Dependencies(Set.copyOf(postIds), false),
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    /**
+     * Marks the current page as a listing that any post change can affect.
+     */
+    public static void dependOnAllPosts(WebRequest request) {
+        request.setAttribute(DEPENDENCIES_ATTRIBUTE, new Dependencies(Set.of(), true),
+                RequestAttributes.SCOPE_REQUEST);
+    }
+
+    CachedPage get(String key) {
+        return pages.getIfPresent(key);
+    }
+
+    long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Skipped when anything was invalidated while the page rendered, since it may show stale data
+    void put(String key, CachedPage page, long renderedAtGeneration) {
+        lock.lock();
+        try {
+            if (generation == renderedAtGeneration) {
+                pages.put(key, page);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        invalidate(page -> page.dependencies().includes(event.postId(), true));
+    }
+
+    @TransactionalEventListener
+    public void onPostTagsChanged(PostTagsChangedEvent event) {
+        invalidate(page -> page.dependencies().includes(event.postId(), true));
+    }
+
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        invalidate(page -> page.dependencies().includes(event.postId(), true));
+    }
+
+    // Listings do not show comments, so only the post's own page is affected
+    @TransactionalEventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        invalidate(page -> page.dependencies().includes(event.postId(), false));
+    }
+
+    @TransactionalEventListener
+    public void onRelatedPostsChanged(RelatedPostsChangedEvent event) {
+        invalidate(page -> event.postIds().stream().anyMatch(id -> page.dependencies().includes(id, false)));
+    }
+
+    @TransactionalEventListener
+    public void onTagDeleted(TagDeletedEvent event) {
+        invalidate(page -> true);
+    }
+
+    private void invalidate(Predicate<CachedPage> affected) {
+        lock.lock();
+        try {
+            generation++;
+            pages.asMap().values().removeIf(affected);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    record Dependencies(Set<Long> postIds, boolean allPosts) {
+
+        boolean includes(Long postId, boolean listingsAffected) {
+            return (allPosts && listingsAffected) || postIds.contains(postId);
+        }
+    }
+
+    record CachedPage(byte[] body, byte[] gzippedBody, String contentType, String etag, String lastModified,
+            String cacheControl, Dependencies dependencies) {
+
+        int weight() {
+            return body.length + gzippedBody.length;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.raptiye.blog.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves anonymous GETs of the home and post pages straight from {@link PageCache}, in identity or
+ * pre-gzipped form, and stores freshly rendered pages that declared their dependencies. Runs after
+ * the security filter chain so cached responses still carry the security headers.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.page-cache.enabled", havingValue = "true")
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    private final PageCache pageCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+            return true;
+        }
+        String path = path(request);
+        if (!path.equals("/") && !path.startsWith("/post/")) {
+            return true;
+        }
+        // Any query besides the page's own cursor would only add entries that evict the hot pages
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (parameters.isEmpty()) {
+            return false;
+        }
+        String[] cursor = parameters.get(cursorParameter(path));
+        return parameters.size() > 1 || cursor == null || cursor.length != 1;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        String path = path(request);
+        String cursor = request.getParameter(cursorParameter(path));
+        String key = cursor == null ? path : path + "?" + cursorParameter(path) + "=" + cursor;
+
+        PageCache.CachedPage cached = pageCache.get(key);
+        if (cached != null) {
+            serve(cached, request, response);
+            return;
+        }
+
+        long generation = pageCache.generation();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            PageCache.CachedPage rendered = toCachedPage(request, wrapper);
+            if (rendered != null) {
+                pageCache.put(key, rendered, generation);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private PageCache.CachedPage toCachedPage(HttpServletRequest request, ContentCachingResponseWrapper response)
+            throws IOException {
+        Object dependencies = request.getAttribute(PageCache.DEPENDENCIES_ATTRIBUTE);
+        String contentType = response.getContentType();
+        if (!(dependencies instanceof PageCache.Dependencies pageDependencies)
+                || response.getStatus() != HttpServletResponse.SC_OK
+                || contentType == null || !contentType.startsWith("text/html")
+                || response.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return null;
+        }
+
+        byte[] body = response.getContentAsByteArray();
+        return new PageCache.CachedPage(body, gzip(body), contentType,
+                response.getHeader(HttpHeaders.ETAG),
+                response.getHeader(HttpHeaders.LAST_MODIFIED),
+                response.getHeader(HttpHeaders.CACHE_CONTROL),
+                pageDependencies);
+    }
+
+    private void serve(PageCache.CachedPage page, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (page.cacheControl() != null) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, page.cacheControl());
+        }
+        if (page.lastModified() != null) {
+            response.setHeader(HttpHeaders.LAST_MODIFIED, page.lastModified());
+        }
+        if (page.etag() != null && new ServletWebRequest(request, response).checkNotModified(page.etag())) {
+            return;
+        }
+
+        byte[] body = page.body();
+        if (acceptsGzip(request)) {
+            body = page.gzippedBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(page.contentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // The home page is paged by cursor, a post page by the cursor of its comments
+    private static String cursorParameter(String path) {
+        return path.equals("/") ? "cursor" : "comments";
+    }
+
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equals("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        }
+        return buffer.toByteArray();
+    }
+}
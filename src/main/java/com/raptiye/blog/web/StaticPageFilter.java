@@ -0,0 +1,114 @@
+package com.raptiye.blog.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Serves pages exported by {@link StaticSiteExporter}, streamed with {@link FileChannel#transferTo}.
+ * Requests without an exported file fall through to {@link PageCacheFilter} and the controllers.
+ */
+@Component
+@RequiredArgsConstructor
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@ConditionalOnProperty(name = "app.static-export.enabled", havingValue = "true")
+public class StaticPageFilter extends OncePerRequestFilter {
+
+    private final StaticSiteExporter exporter;
+
+    // Paged home pages carry a cursor and stay dynamic
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()))
+                || request.getQueryString() != null
+                || request.getHeader(HttpHeaders.AUTHORIZATION) != null;
+    }
+
+    // The exporter replaces pages atomically while they are served, so the body and Content-Length come
+    // from one channel opened before any header is written; a path handed to the connector through
+    // sendfile would be opened later and could name the next version. The validators are read before
+    // the open, so a replacement in between can only make them older than the body, never newer
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        Path file = resolve(request.getRequestURI().substring(request.getContextPath().length()));
+        BasicFileAttributes attributes = file == null ? null : attributes(file);
+        FileChannel channel = attributes == null ? null : open(file);
+        if (channel == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        try (channel) {
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            String etag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(attributes.size()) + "\"";
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache, public");
+            if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+                return;
+            }
+
+            long size = channel.size();
+            response.setContentType(MediaType.TEXT_HTML_VALUE + ";charset=UTF-8");
+            response.setContentLengthLong(size);
+            if ("HEAD".equals(request.getMethod())) {
+                return;
+            }
+            transfer(channel, size, response);
+        }
+    }
+
+    private Path resolve(String path) {
+        if (path.equals("/")) {
+            return exporter.homeFile();
+        }
+        if (path.startsWith("/post/")) {
+            return exporter.postFile(path.substring("/post/".length()));
+        }
+        return null;
+    }
+
+    private static BasicFileAttributes attributes(Path file) throws IOException {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        try {
+            return FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    private static void transfer(FileChannel channel, long size, HttpServletResponse response) throws IOException {
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = 0;
+        while (position < size) {
+            position += channel.transferTo(position, size - position, out);
+        }
+    }
+}
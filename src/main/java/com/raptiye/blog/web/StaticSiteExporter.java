@@ -0,0 +1,335 @@
+package com.raptiye.blog.web;
+
+import com.raptiye.blog.dto.response.CursorPageResponse;
+import com.raptiye.blog.dto.response.PostDetailResponse;
+import com.raptiye.blog.dto.response.PostResponse;
+import com.raptiye.blog.dto.response.StaticExportResponse;
+import com.raptiye.blog.event.CommentChangedEvent;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.PostTagsChangedEvent;
+import com.raptiye.blog.event.RelatedPostsChangedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
+import com.raptiye.blog.exception.ResourceNotFoundException;
+import com.raptiye.blog.service.PostService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.MessageSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.context.IExpressionContext;
+import org.thymeleaf.linkbuilder.StandardLinkBuilder;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ITemplateResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Renders the first home page and every published post page to {@code app.static-export.dir} with
+ * the regular templates, for {@link StaticPageFilter} to serve without touching the database.
+ * After the initial export only the pages touched by a content change are re-rendered, on a single
+ * background thread so that writers never wait for rendering. Files from a previous run are
+ * removed on startup because content may have changed while the application was down.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.static-export.enabled", havingValue = "true")
+public class StaticSiteExporter {
+
+    static final String HOME_FILE = "index.html";
+    static final String POST_DIR = "post";
+    static final Pattern SLUG = Pattern.compile("[a-z0-9][a-z0-9-]*");
+
+    private static final int HOME_PAGE_SIZE = 10;
+    private static final int RELATED_POSTS = 5;
+
+    private final PostService postService;
+    private final SpringTemplateEngine templateEngine;
+    private final Path root;
+    private final ExecutorService renderer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "static-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Pages waiting for the renderer; the home page flag and post ids are swapped out per drain
+    private final Set<Long> dirtyPosts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean homeDirty = new AtomicBoolean();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final Map<Long, String> exportedSlugs = new ConcurrentHashMap<>();
+
+    // Held across queries and file writes, possibly by a virtual request thread, so not a monitor
+    private final ReentrantLock exportLock = new ReentrantLock();
+
+    private final Counter pagesWritten;
+    private final Timer fullExports;
+
+    public StaticSiteExporter(PostService postService, ObjectProvider<ITemplateResolver> templateResolvers,
+            MessageSource messageSource, MeterRegistry meterRegistry,
+            @Value("${app.static-export.dir:./static-export}") String dir,
+            @Value("${server.servlet.context-path:}") String contextPath) {
+        this.postService = postService;
+        this.root = Path.of(dir).toAbsolutePath().normalize();
+
+        // The web engine's links need a servlet request; exported pages resolve them against the context path
+        this.templateEngine = new SpringTemplateEngine();
+        templateResolvers.orderedStream().forEach(templateEngine::addTemplateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        templateEngine.setLinkBuilder(new StandardLinkBuilder() {
+            @Override
+            protected String computeContextPath(IExpressionContext context, String base,
+                    Map<String, Object> parameters) {
+                return contextPath;
+            }
+        });
+
+        this.pagesWritten = Counter.builder("static.export.pages")
+                .description("Pages written by the static site export")
+                .register(meterRegistry);
+        this.fullExports = Timer.builder("static.export.full")
+                .description("Duration of full static site exports")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exportOnStartup() {
+        clear();
+        renderer.execute(this::exportAllQuietly);
+    }
+
+    @Scheduled(cron = "${app.static-export.cron:-}")
+    public void exportOnSchedule() {
+        renderer.execute(this::exportAllQuietly);
+    }
+
+    /**
+     * Re-renders every page and removes files of posts that are no longer published.
+     */
+    public StaticExportResponse exportAll() {
+        exportLock.lock();
+        try {
+            return exportAllLocked();
+        } finally {
+            exportLock.unlock();
+        }
+    }
+
+    private StaticExportResponse exportAllLocked() {
+        long started = System.nanoTime();
+        long bytes = writeHome();
+        int pages = 1;
+
+        Set<String> slugs = new HashSet<>();
+        for (String slug : postService.getPublishedPostSlugs()) {
+            try {
+                bytes += writePost(postService.getPostBySlug(slug, false));
+                slugs.add(slug);
+                pages++;
+            } catch (ResourceNotFoundException e) {
+                // Deleted between listing and rendering
+            }
+        }
+        removeFilesExcept(slugs);
+
+        long durationNanos = System.nanoTime() - started;
+        fullExports.record(durationNanos, TimeUnit.NANOSECONDS);
+        log.info("Exported {} static pages ({} bytes) to {}", pages, bytes, root);
+        return StaticExportResponse.builder()
+                .pages(pages)
+                .bytes(bytes)
+                .durationMs(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                .build();
+    }
+
+    @TransactionalEventListener
+    public void onPostChanged(PostChangedEvent event) {
+        schedule(Set.of(event.postId()), true);
+    }
+
+    @TransactionalEventListener
+    public void onPostTagsChanged(PostTagsChangedEvent event) {
+        schedule(Set.of(event.postId()), true);
+    }
+
+    @TransactionalEventListener
+    public void onPostDeleted(PostDeletedEvent event) {
+        schedule(Set.of(event.postId()), true);
+    }
+
+    @TransactionalEventListener
+    public void onCommentChanged(CommentChangedEvent event) {
+        schedule(Set.of(event.postId()), false);
+    }
+
+    @TransactionalEventListener
+    public void onRelatedPostsChanged(RelatedPostsChangedEvent event) {
+        schedule(event.postIds(), false);
+    }
+
+    @TransactionalEventListener
+    public void onTagDeleted(TagDeletedEvent event) {
+        renderer.execute(this::exportAllQuietly);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        renderer.shutdownNow();
+    }
+
+    // Bursts of changes collapse into one drain, and a post changed many times is rendered once
+    private void schedule(Set<Long> postIds, boolean home) {
+        dirtyPosts.addAll(postIds);
+        if (home) {
+            homeDirty.set(true);
+        }
+        if (drainScheduled.compareAndSet(false, true)) {
+            renderer.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        drainScheduled.set(false);
+        exportLock.lock();
+        try {
+            if (homeDirty.getAndSet(false)) {
+                writeHome();
+            }
+            for (Long postId : Set.copyOf(dirtyPosts)) {
+                dirtyPosts.remove(postId);
+                exportPost(postId);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Incremental static export failed, pages fall back to dynamic rendering", e);
+        } finally {
+            exportLock.unlock();
+        }
+    }
+
+    private void exportPost(Long postId) {
+        PostDetailResponse post;
+        try {
+            post = postService.getPostById(postId, false);
+        } catch (ResourceNotFoundException e) {
+            post = null;
+        }
+
+        String previousSlug = exportedSlugs.remove(postId);
+        if (previousSlug != null && (post == null || !post.isPublished() || !previousSlug.equals(post.getSlug()))) {
+            delete(postFile(previousSlug));
+        }
+        if (post != null && post.isPublished()) {
+            writePost(post);
+        }
+    }
+
+    private long writeHome() {
+        CursorPageResponse<PostResponse> page = postService.getPublishedPosts(null, HOME_PAGE_SIZE);
+        Context context = new Context(Locale.getDefault());
+        context.setVariable("posts", page.getContent());
+        context.setVariable("nextCursor", page.getNextCursor());
+        return write(root.resolve(HOME_FILE), templateEngine.process("index", context));
+    }
+
+    private long writePost(PostDetailResponse post) {
+        Path file = postFile(post.getSlug());
+        if (file == null) {
+            return 0;
+        }
+        Context context = new Context(Locale.getDefault());
+        context.setVariable("post", post);
+        context.setVariable("relatedPosts", postService.getRelatedPosts(post.getId(), RELATED_POSTS));
+        long bytes = write(file, templateEngine.process("post-detail", context));
+        exportedSlugs.put(post.getId(), post.getSlug());
+        return bytes;
+    }
+
+    // Written next to the target and moved into place, so readers never see a partial page
+    private long write(Path file, String html) {
+        byte[] body = html.getBytes(StandardCharsets.UTF_8);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), ".export-", ".tmp");
+            Files.write(temp, body);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write static page " + file, e);
+        }
+        pagesWritten.increment();
+        return body.length;
+    }
+
+    Path homeFile() {
+        return root.resolve(HOME_FILE);
+    }
+
+    // Null for slugs that could escape the export directory
+    Path postFile(String slug) {
+        return SLUG.matcher(slug).matches() ? root.resolve(POST_DIR).resolve(slug + ".html") : null;
+    }
+
+    private void removeFilesExcept(Set<String> slugs) {
+        Path posts = root.resolve(POST_DIR);
+        if (!Files.isDirectory(posts)) {
+            return;
+        }
+        exportedSlugs.values().retainAll(slugs);
+        try (Stream<Path> files = Files.list(posts)) {
+            files.filter(file -> !slugs.contains(file.getFileName().toString().replaceFirst("\\.html$", "")))
+                    .forEach(this::delete);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list " + posts, e);
+        }
+    }
+
+    private void clear() {
+        delete(root.resolve(HOME_FILE));
+        exportedSlugs.clear();
+        removeFilesExcept(Set.of());
+    }
+
+    private void delete(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete static page " + file, e);
+        }
+    }
+
+    private void exportAllQuietly() {
+        try {
+            exportAll();
+        } catch (RuntimeException e) {
+            log.warn("Static export failed, pages fall back to dynamic rendering", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+-- Precomputed top-K related posts per post (weighted Jaccard over tag sets), maintained by RelatedPostService
+CREATE TABLE related_posts (
+    post_id BIGINT NOT NULL,
+    related_post_id BIGINT NOT NULL,
+    score REAL NOT NULL,
+    PRIMARY KEY (post_id, related_post_id),
+    CONSTRAINT fk_related_posts_post FOREIGN KEY (post_id) REFERENCES posts(id) ON DELETE CASCADE,
+    CONSTRAINT fk_related_posts_related_post FOREIGN KEY (related_post_id) REFERENCES posts(id) ON DELETE CASCADE
+);
+
+-- Reverse lookup: which posts currently list a given post as related
+CREATE INDEX idx_related_posts_related_post_id ON related_posts(related_post_id);
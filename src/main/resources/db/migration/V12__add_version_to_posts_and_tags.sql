@@ -0,0 +1,3 @@
+-- Optimistic lock versions; also part of the ETags served for posts and tags
+ALTER TABLE posts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE tags ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Embedded in access tokens; bumping it invalidates every token issued to the user
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,7 @@
+-- Hibernate allocates ids in blocks of 50 (pooled-lo), which lets it batch inserts; must match allocationSize.
+-- Inserts relying on the column default still work, each consuming a whole block.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tags_id_seq INCREMENT BY 50;
+ALTER SEQUENCE posts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE comments_id_seq INCREMENT BY 50;
+ALTER SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
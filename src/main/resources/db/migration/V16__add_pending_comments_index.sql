@@ -0,0 +1,4 @@
+-- Moderation queue is paged by (created_at DESC, id DESC) over pending comments only; a partial index
+-- stays as small as the queue and replaces the low-selectivity index on the approved flag
+CREATE INDEX idx_comments_pending ON comments(created_at DESC, id DESC) WHERE approved = FALSE;
+DROP INDEX IF EXISTS idx_comments_approved;
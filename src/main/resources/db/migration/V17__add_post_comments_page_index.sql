@@ -0,0 +1,4 @@
+-- Comments of a post are paged by (created_at DESC, id DESC), usually over the approved ones only; the composite
+-- index serves the filter and the order, and its post_id prefix takes over from the single-column index
+CREATE INDEX idx_comments_post_approved_created ON comments(post_id, approved, created_at DESC, id DESC);
+DROP INDEX IF EXISTS idx_comments_post_id;
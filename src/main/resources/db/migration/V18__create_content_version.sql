@@ -0,0 +1,12 @@
+-- Generations behind the catalog and post page validators (ContentVersionService). Every writing transaction
+-- bumps the single row before it commits, so all instances answer conditional GETs from the same counters
+CREATE TABLE content_version (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    catalog BIGINT NOT NULL,
+    catalog_modified TIMESTAMP(6) NOT NULL,
+    posts BIGINT NOT NULL,
+    posts_modified TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO content_version (id, catalog, catalog_modified, posts, posts_modified)
+VALUES (1, 0, LOCALTIMESTAMP, 0, LOCALTIMESTAMP);
@@ -0,0 +1,3 @@
+-- Keyset pagination orders by (created_at DESC, id DESC); extend the index with the tie-breaker
+DROP INDEX IF EXISTS idx_posts_created_at;
+CREATE INDEX idx_posts_created_at ON posts(created_at DESC, id DESC);
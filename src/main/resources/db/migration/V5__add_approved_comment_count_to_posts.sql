@@ -0,0 +1,7 @@
+-- Denormalized number of approved comments, maintained by CommentService with atomic increments
+ALTER TABLE posts ADD COLUMN approved_comment_count INTEGER NOT NULL DEFAULT 0;
+
+UPDATE posts p
+SET approved_comment_count = (
+    SELECT COUNT(*) FROM comments c WHERE c.post_id = p.id AND c.approved = TRUE
+);
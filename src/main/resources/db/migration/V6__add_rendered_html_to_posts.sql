@@ -0,0 +1,3 @@
+-- Sanitized HTML rendered from markdown at write time; backfilled by V7__BackfillRenderedPostHtml
+ALTER TABLE posts ADD COLUMN content_html TEXT;
+ALTER TABLE posts ADD COLUMN summary_html TEXT;
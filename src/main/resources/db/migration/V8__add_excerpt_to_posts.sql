@@ -0,0 +1,2 @@
+-- Plain-text excerpt of the content for listings; backfilled by V9__BackfillPostExcerpt
+ALTER TABLE posts ADD COLUMN excerpt VARCHAR(400);
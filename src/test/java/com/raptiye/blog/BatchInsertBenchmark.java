@@ -0,0 +1,106 @@
+package com.raptiye.blog;
+
+import com.raptiye.blog.domain.Comment;
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.repository.PostRepository;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second when persisting comments through JPA in transactions of {@value #ROWS} rows.
+ * {@code batchSize=0} sends one statement per row, as every insert did while ids came from
+ * IDENTITY columns (which additionally returned the generated key per row); {@code batchSize=50}
+ * is the configured JDBC batching with pooled sequence ids and {@code reWriteBatchedInserts}.
+ * Boots the application against a local PostgreSQL, set through {@code DB_URL}, {@code DB_USERNAME}
+ * and {@code DB_PASSWORD} (default {@code jdbc:postgresql://localhost:5432/blog_db}, postgres/postgres).
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BatchInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class BatchInsertBenchmark {
+
+    private static final int ROWS = 1000;
+
+    @Param({"0", "50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate transactionTemplate;
+    private EntityManager entityManager;
+    private JdbcTemplate jdbcTemplate;
+    private Long postId;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(BlogApplication.class)
+                .run("--server.port=0",
+                        "--spring.datasource.url=" + env("DB_URL", "jdbc:postgresql://localhost:5432/blog_db"),
+                        "--spring.datasource.username=" + env("DB_USERNAME", "postgres"),
+                        "--spring.datasource.password=" + env("DB_PASSWORD", "postgres"),
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--app.static-export.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+        entityManager = context.getBean(EntityManager.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        postId = context.getBean(PostRepository.class)
+                .save(Post.builder().title("Batch insert benchmark " + System.nanoTime()).content("-").build())
+                .getId();
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteComments() {
+        jdbcTemplate.update("DELETE FROM comments WHERE post_id = ?", postId);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        jdbcTemplate.update("DELETE FROM posts WHERE id = ?", postId);
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insertComments() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Post post = entityManager.getReference(Post.class, postId);
+            for (int i = 0; i < ROWS; i++) {
+                entityManager.persist(Comment.builder()
+                        .authorName("Benchmark")
+                        .authorEmail("bench@example.com")
+                        .content("Comment " + i)
+                        .post(post)
+                        .build());
+            }
+        });
+    }
+
+    private static String env(String name, String defaultValue) {
+        return Objects.requireNonNullElse(System.getenv(name), defaultValue);
+    }
+}
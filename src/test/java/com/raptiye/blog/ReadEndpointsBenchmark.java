@@ -0,0 +1,139 @@
+package com.raptiye.blog;
+
+import com.raptiye.blog.service.PostService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per millisecond and latency percentiles (p99 in the SampleTime rows) of the public read
+ * endpoints under 256 concurrent clients, with Tomcat on its platform thread pool and on virtual
+ * threads. Boots the whole application against a local PostgreSQL with the seed data, set through
+ * {@code DB_URL}, {@code DB_USERNAME} and {@code DB_PASSWORD} (default
+ * {@code jdbc:postgresql://localhost:5432/blog_db}, postgres/postgres). The page cache is off so
+ * every request reaches the database. Clients share the fork with the server, so compare the two
+ * modes rather than reading the numbers as absolute capacity.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ReadEndpointsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class ReadEndpointsBenchmark {
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    @Param("10")
+    private int poolSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest postList;
+    private HttpRequest postBySlug;
+    private HttpRequest tagList;
+    private HttpRequest homePage;
+    private HttpRequest postPage;
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(BlogApplication.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + "virtual".equals(threads),
+                        "--spring.datasource.url=" + env("DB_URL", "jdbc:postgresql://localhost:5432/blog_db"),
+                        "--spring.datasource.username=" + env("DB_USERNAME", "postgres"),
+                        "--spring.datasource.password=" + env("DB_PASSWORD", "postgres"),
+                        "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                        "--app.page-cache.enabled=false",
+                        "--app.static-export.enabled=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+
+        List<String> slugs = context.getBean(PostService.class).getPublishedPostSlugs();
+        if (slugs.isEmpty()) {
+            throw new IllegalStateException("The benchmark database has no published posts");
+        }
+        String slug = slugs.get(0);
+
+        URI base = URI.create("http://localhost:"
+                + ((WebServerApplicationContext) context).getWebServer().getPort());
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        postList = get(base.resolve("/api/posts"));
+        postBySlug = get(base.resolve("/api/posts/" + slug));
+        tagList = get(base.resolve("/api/tags"));
+        homePage = get(base.resolve("/"));
+        postPage = get(base.resolve("/post/" + slug));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public int postList() throws IOException, InterruptedException {
+        return send(postList);
+    }
+
+    @Benchmark
+    public int postBySlug() throws IOException, InterruptedException {
+        return send(postBySlug);
+    }
+
+    @Benchmark
+    public int tagList() throws IOException, InterruptedException {
+        return send(tagList);
+    }
+
+    @Benchmark
+    public int homePage() throws IOException, InterruptedException {
+        return send(homePage);
+    }
+
+    @Benchmark
+    public int postPage() throws IOException, InterruptedException {
+        return send(postPage);
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            throw new IllegalStateException(request.uri() + " answered " + status);
+        }
+        return status;
+    }
+
+    private static HttpRequest get(URI uri) {
+        return HttpRequest.newBuilder(uri).GET().build();
+    }
+
+    private static String env(String name, String defaultValue) {
+        return Objects.requireNonNullElse(System.getenv(name), defaultValue);
+    }
+}
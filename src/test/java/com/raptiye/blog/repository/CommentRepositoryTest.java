@@ -0,0 +1,134 @@
+package com.raptiye.blog.repository;
+
+import com.raptiye.blog.config.migration.V7__BackfillRenderedPostHtml;
+import com.raptiye.blog.config.migration.V9__BackfillPostExcerpt;
+import com.raptiye.blog.util.MarkdownService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the native bulk moderation statements ({@code UPDATE/DELETE ... RETURNING post_id}) against
+ * PostgreSQL with the Flyway schema. Skipped when no Docker daemon is available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({V7__BackfillRenderedPostHtml.class, V9__BackfillPostExcerpt.class, MarkdownService.class,
+        SimpleMeterRegistry.class})
+@Testcontainers(disabledWithoutDocker = true)
+class CommentRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2000, 1, 1, 12, 0);
+
+    private static final List<Long> NO_IDS = List.of(0L);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @BeforeEach
+    void setUp() {
+        insertPost(9001L);
+        insertPost(9002L);
+
+        insertComment(9101L, 9001L, CUTOFF.minusHours(3), false);
+        insertComment(9102L, 9001L, CUTOFF.minusHours(2), false);
+        insertComment(9103L, 9001L, CUTOFF.minusHours(1), true);
+        insertComment(9104L, 9002L, CUTOFF.minusHours(1), false);
+        insertComment(9105L, 9002L, CUTOFF.plusHours(1), false);
+    }
+
+    @Test
+    void approvePendingInSelection_ShouldReturnPostIdOfEveryApprovedRow() {
+        // Act
+        List<Long> postIds = commentRepository.approvePendingInSelection(false, NO_IDS, null, CUTOFF);
+
+        // Assert
+        assertThat(postIds).containsExactlyInAnyOrder(9001L, 9001L, 9002L);
+        assertThat(pendingCommentIds()).containsExactly(9105L);
+    }
+
+    @Test
+    void approvePendingInSelection_ShouldApplyIdAndPostFilters() {
+        // Act
+        List<Long> postIds = commentRepository.approvePendingInSelection(true, List.of(9101L, 9103L, 9104L),
+                9001L, CUTOFF);
+
+        // Assert
+        assertThat(postIds).containsExactly(9001L);
+        assertThat(pendingCommentIds()).containsExactly(9102L, 9104L, 9105L);
+    }
+
+    @Test
+    void deleteSelection_ShouldReturnPostIdOfEveryDeletedRow() {
+        // Act
+        List<Long> postIds = commentRepository.deleteSelection(false, NO_IDS, 9001L, CUTOFF);
+
+        // Assert
+        assertThat(postIds).containsExactly(9001L, 9001L, 9001L);
+        assertThat(commentIds()).containsExactly(9104L, 9105L);
+    }
+
+    @Test
+    void deleteSelection_ShouldNotTouchRowsCreatedAfterCutoff() {
+        // Act
+        List<Long> postIds = commentRepository.deleteSelection(true, List.of(9104L, 9105L), null, CUTOFF);
+
+        // Assert
+        assertThat(postIds).containsExactly(9002L);
+        assertThat(commentIds()).containsExactly(9101L, 9102L, 9103L, 9105L);
+    }
+
+    private void insertPost(Long id) {
+        entityManager.createNativeQuery("INSERT INTO posts (id, title, slug, content, published, created_at, updated_at) "
+                        + "VALUES (:id, 'Post', :slug, 'Content', TRUE, :createdAt, :createdAt)")
+                .setParameter("id", id)
+                .setParameter("slug", "bulk-" + id)
+                .setParameter("createdAt", CUTOFF.minusDays(1))
+                .executeUpdate();
+    }
+
+    private void insertComment(Long id, Long postId, LocalDateTime createdAt, boolean approved) {
+        entityManager.createNativeQuery("INSERT INTO comments (id, post_id, author_name, author_email, content, approved, "
+                        + "created_at, updated_at) VALUES (:id, :postId, 'Reader', 'reader@example.com', 'Comment', "
+                        + ":approved, :createdAt, :createdAt)")
+                .setParameter("id", id)
+                .setParameter("postId", postId)
+                .setParameter("approved", approved)
+                .setParameter("createdAt", createdAt)
+                .executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> commentIds() {
+        return entityManager.createNativeQuery("SELECT id FROM comments WHERE id > 9100 ORDER BY id", Long.class)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> pendingCommentIds() {
+        return entityManager.createNativeQuery(
+                        "SELECT id FROM comments WHERE id > 9100 AND approved = FALSE ORDER BY id", Long.class)
+                .getResultList();
+    }
+}
@@ -0,0 +1,195 @@
+package com.raptiye.blog.repository;
+
+import com.raptiye.blog.config.migration.V7__BackfillRenderedPostHtml;
+import com.raptiye.blog.config.migration.V9__BackfillPostExcerpt;
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.dto.response.CommentResponse;
+import com.raptiye.blog.util.MarkdownService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the keyset pagination queries against PostgreSQL with the Flyway schema and checks that the
+ * cursor predicate is an index seek ({@code Index Cond}) rather than a {@code Filter} over every row
+ * newer than the cursor. Skipped when no Docker daemon is available.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.raptiye.blog.repository.KeysetQueryPlanTest$LastStatement")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({V7__BackfillRenderedPostHtml.class, V9__BackfillPostExcerpt.class, MarkdownService.class,
+        SimpleMeterRegistry.class})
+@Testcontainers(disabledWithoutDocker = true)
+class KeysetQueryPlanTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDateTime TIE = LocalDateTime.of(2000, 1, 1, 12, 0);
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Three posts share one timestamp so the id tie-breaker decides the page boundary
+        insertPost(9001L, TIE.minusDays(1), true);
+        insertPost(9002L, TIE, true);
+        insertPost(9003L, TIE, false);
+        insertPost(9004L, TIE, true);
+
+        insertComment(9101L, 9004L, TIE.minusDays(1), true);
+        insertComment(9102L, 9004L, TIE, true);
+        insertComment(9103L, 9004L, TIE, false);
+        insertComment(9104L, 9004L, TIE, true);
+    }
+
+    @Test
+    void findPublishedBefore_ShouldSeekIntoCreatedAtIndex() {
+        // Act
+        List<Post> page = postRepository.findPublishedBefore(TIE, 9004L, Limit.of(2));
+        List<String> plan = explainLastStatement(TIE, 9004L, 2);
+
+        // Assert
+        assertThat(page).extracting(Post::getId).containsExactly(9002L, 9001L);
+        assertThat(plan).anySatisfy(line -> assertThat(line)
+                .contains("idx_posts_created_at")).anySatisfy(line -> assertThat(line)
+                .contains("Index Cond: (ROW(created_at, id) < ROW("));
+    }
+
+    @Test
+    void findAllBefore_ShouldSeekIntoCreatedAtIndex() {
+        // Act
+        List<Post> page = postRepository.findAllBefore(TIE, 9004L, Limit.of(2));
+        List<String> plan = explainLastStatement(TIE, 9004L, 2);
+
+        // Assert
+        assertThat(page).extracting(Post::getId).containsExactly(9003L, 9002L);
+        assertThat(plan).anySatisfy(line -> assertThat(line)
+                .contains("Index Cond: (ROW(created_at, id) < ROW("));
+    }
+
+    @Test
+    void findApprovedByPostIdBefore_ShouldSeekIntoPostCommentsIndex() {
+        // Act
+        List<CommentResponse> page = commentRepository.findApprovedByPostIdBefore(9004L, TIE, 9104L, Limit.of(2));
+        List<String> plan = explainLastStatement(9004L, TIE, 9104L, 2);
+
+        // Assert
+        assertThat(page).extracting(CommentResponse::getId).containsExactly(9102L, 9101L);
+        assertThat(plan).anySatisfy(line -> assertThat(line)
+                .contains("idx_comments_post_approved_created")).anySatisfy(line -> assertThat(line)
+                .contains("ROW(created_at, id) < ROW("));
+        assertThat(plan).noneSatisfy(line -> assertThat(line).startsWith("Filter:"));
+    }
+
+    @Test
+    void findPendingBefore_ShouldSeekIntoPendingIndex() {
+        // Act
+        List<CommentResponse> page = commentRepository.findPendingBefore(TIE.plusDays(1), 0L, Limit.of(2));
+        List<String> plan = explainLastStatement(TIE.plusDays(1), 0L, 2);
+
+        // Assert
+        assertThat(page).extracting(CommentResponse::getId).containsExactly(9103L);
+        assertThat(plan).anySatisfy(line -> assertThat(line)
+                .contains("idx_comments_pending")).anySatisfy(line -> assertThat(line)
+                .startsWith("Index Cond:").contains("ROW(created_at, id) < ROW("));
+    }
+
+    // Without the approved equality the V17 index cannot seek past its post_id prefix; PostgreSQL still derives a
+    // leading created_at bound from the row comparison, so the admin listing never reads rows newer than the cursor
+    @Test
+    void findByPostIdBefore_ShouldBoundCursorInIndexCondition() {
+        // Act
+        List<CommentResponse> page = commentRepository.findByPostIdBefore(9004L, TIE, 9104L, Limit.of(2));
+        List<String> plan = explainLastStatement(9004L, TIE, 9104L, 2);
+
+        // Assert
+        assertThat(page).extracting(CommentResponse::getId).containsExactly(9103L, 9102L);
+        assertThat(plan).anySatisfy(line -> assertThat(line)
+                .startsWith("Index Cond:").contains("created_at <="));
+    }
+
+    private void insertPost(Long id, LocalDateTime createdAt, boolean published) {
+        entityManager.createNativeQuery("INSERT INTO posts (id, title, slug, content, published, created_at, updated_at) "
+                        + "VALUES (:id, 'Post', :slug, 'Content', :published, :createdAt, :createdAt)")
+                .setParameter("id", id)
+                .setParameter("slug", "keyset-" + id)
+                .setParameter("published", published)
+                .setParameter("createdAt", createdAt)
+                .executeUpdate();
+    }
+
+    private void insertComment(Long id, Long postId, LocalDateTime createdAt, boolean approved) {
+        entityManager.createNativeQuery("INSERT INTO comments (id, post_id, author_name, author_email, content, approved, "
+                        + "created_at, updated_at) VALUES (:id, :postId, 'Reader', 'reader@example.com', 'Comment', "
+                        + ":approved, :createdAt, :createdAt)")
+                .setParameter("id", id)
+                .setParameter("postId", postId)
+                .setParameter("approved", approved)
+                .setParameter("createdAt", createdAt)
+                .executeUpdate();
+    }
+
+    // EXPLAINs the SQL Hibernate generated for the last repository call, bound to the same values.
+    // Sequential scans are switched off because the planner would otherwise read a table this small whole
+    private List<String> explainLastStatement(Object... parameters) {
+        String sql = LastStatement.sql;
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL enable_seqscan = off");
+            }
+            List<String> plan = new ArrayList<>();
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    explain.setObject(i + 1, parameters[i]);
+                }
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        plan.add(rows.getString(1).trim());
+                    }
+                }
+            }
+            return plan;
+        });
+    }
+
+    public static class LastStatement implements StatementInspector {
+
+        static volatile String sql;
+
+        @Override
+        public String inspect(String statement) {
+            sql = statement;
+            return statement;
+        }
+    }
+}
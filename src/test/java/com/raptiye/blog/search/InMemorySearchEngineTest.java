@@ -0,0 +1,91 @@
+package com.raptiye.blog.search;
+
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.dto.response.PostSearchResponse;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemorySearchEngineTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InMemorySearchEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        engine = new InMemorySearchEngine(postRepository, meterRegistry);
+        lenient().when(postRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Post> posts = new ArrayList<>();
+            invocation.<Iterable<Long>>getArgument(0)
+                    .forEach(id -> posts.add(Post.builder().id(id).title("Post " + id).build()));
+            return posts;
+        });
+    }
+
+    @Test
+    void shouldKeepEventsThatArriveWhileRebuilding() {
+        // Arrange: post 1 is deleted and post 3 published once the database read has taken its snapshot
+        List<PostRepository.IndexSource> published = List.of(source(1L, "caching notes"), source(2L, "caching tips"));
+        when(postRepository.streamPublishedForIndex()).thenReturn(published.stream()
+                .peek(post -> {
+                    if (post.getId() == 1L) {
+                        engine.onPostDeleted(new PostDeletedEvent(1L, Set.of()));
+                        engine.onPostChanged(
+                                new PostChangedEvent(3L, true, false, "caching guide", null, "body", Set.of()));
+                    }
+                }));
+
+        // Act
+        engine.rebuild();
+
+        // Assert
+        assertThat(engine.search("caching", Float.MAX_VALUE, Long.MAX_VALUE, 10))
+                .extracting(PostSearchResponse::getId)
+                .containsExactlyInAnyOrder(2L, 3L);
+        assertThat(meterRegistry.get("search.index.documents").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeepServingTheCurrentIndexWhenRebuildFails() {
+        // Arrange
+        engine.onPostChanged(new PostChangedEvent(1L, true, false, "caching notes", null, "body", Set.of()));
+        when(postRepository.streamPublishedForIndex()).thenThrow(new IllegalStateException("connection lost"));
+
+        // Act
+        assertThrows(IllegalStateException.class, engine::rebuild);
+        engine.onPostChanged(new PostChangedEvent(2L, true, false, "caching tips", null, "body", Set.of()));
+
+        // Assert
+        assertThat(engine.search("caching", Float.MAX_VALUE, Long.MAX_VALUE, 10))
+                .extracting(PostSearchResponse::getId)
+                .containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    private static PostRepository.IndexSource source(Long id, String title) {
+        PostRepository.IndexSource source = mock(PostRepository.IndexSource.class);
+        when(source.getId()).thenReturn(id);
+        when(source.getTitle()).thenReturn(title);
+        when(source.getContent()).thenReturn("body");
+        return source;
+    }
+}
@@ -0,0 +1,72 @@
+package com.raptiye.blog.search;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query latency of {@link InvertedIndex} over a synthetic corpus with a skewed vocabulary.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=InvertedIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class InvertedIndexBenchmark {
+
+    private static final int VOCABULARY_SIZE = 50_000;
+
+    @Param("100000")
+    private int posts;
+
+    private InvertedIndex index;
+
+    @Setup
+    public void buildIndex() {
+        Random random = new Random(42);
+        index = new InvertedIndex();
+        for (long id = 1; id <= posts; id++) {
+            index.put(id, InMemorySearchEngine.termFrequencies(
+                    words(random, 6), words(random, 25), words(random, 250)));
+        }
+    }
+
+    @Benchmark
+    public List<InvertedIndex.ScoredDoc> commonTerm() {
+        return index.search(List.of("term3"), Float.MAX_VALUE, Long.MAX_VALUE, 21);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.ScoredDoc> rareTerm() {
+        return index.search(List.of("term4000"), Float.MAX_VALUE, Long.MAX_VALUE, 21);
+    }
+
+    @Benchmark
+    public List<InvertedIndex.ScoredDoc> threeTermQuery() {
+        return index.search(List.of("term20", "term350", "term9000"), Float.MAX_VALUE, Long.MAX_VALUE, 21);
+    }
+
+    // Cubing a uniform sample skews term choice towards low ranks, roughly like natural text
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            text.append("term").append((int) (skewed * VOCABULARY_SIZE)).append(' ');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,110 @@
+package com.raptiye.blog.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void shouldRankDocumentsWithMoreMatchesFirst() {
+        // Arrange
+        index.put(1L, terms("spring boot caching", "", "a post about caching in spring"));
+        index.put(2L, terms("java records", "", "records are a java feature"));
+        index.put(3L, terms("spring security", "", "securing a spring application"));
+
+        // Act
+        List<InvertedIndex.ScoredDoc> hits = search("spring caching");
+
+        // Assert
+        assertThat(hits).extracting(InvertedIndex.ScoredDoc::docId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    void shouldWeightTitleAboveContent() {
+        // Arrange
+        index.put(1L, terms("virtual threads", "", "notes"));
+        index.put(2L, terms("notes", "", "virtual threads"));
+
+        // Act
+        List<InvertedIndex.ScoredDoc> hits = search("threads");
+
+        // Assert
+        assertThat(hits).extracting(InvertedIndex.ScoredDoc::docId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void shouldReplaceDocumentOnUpdate() {
+        // Arrange
+        index.put(1L, terms("hibernate", "", "batching"));
+
+        // Act
+        index.put(1L, terms("flyway", "", "migrations"));
+
+        // Assert
+        assertThat(search("hibernate")).isEmpty();
+        assertThat(search("flyway")).extracting(InvertedIndex.ScoredDoc::docId).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRemoveDocument() {
+        // Arrange
+        index.put(1L, terms("postgres", "", "full text search"));
+
+        // Act
+        index.remove(1L);
+
+        // Assert
+        assertThat(search("postgres")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void shouldContinueAfterCursorPosition() {
+        // Arrange
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, terms("same title", "", "same body"));
+        }
+
+        // Act
+        List<InvertedIndex.ScoredDoc> firstPage = index.search(List.of("same"), Float.MAX_VALUE, Long.MAX_VALUE, 2);
+        InvertedIndex.ScoredDoc last = firstPage.get(1);
+        List<InvertedIndex.ScoredDoc> secondPage = index.search(List.of("same"), last.score(), last.docId(), 2);
+
+        // Assert
+        assertThat(firstPage).extracting(InvertedIndex.ScoredDoc::docId).containsExactly(5L, 4L);
+        assertThat(secondPage).extracting(InvertedIndex.ScoredDoc::docId).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void shouldKeepResultsAfterCompaction() {
+        // Arrange
+        for (long id = 1; id <= 3000; id++) {
+            index.put(id, terms("post " + id, "", id % 2 == 0 ? "even" : "odd"));
+        }
+
+        // Act
+        for (long id = 1; id <= 2500; id++) {
+            index.remove(id);
+        }
+
+        // Assert
+        assertThat(index.size()).isEqualTo(500);
+        assertThat(index.search(List.of("even"), Float.MAX_VALUE, Long.MAX_VALUE, 1000)).hasSize(250);
+        assertThat(search("2999")).extracting(InvertedIndex.ScoredDoc::docId).containsExactly(2999L);
+    }
+
+    private List<InvertedIndex.ScoredDoc> search(String query) {
+        return index.search(Tokenizer.tokenize(query), Float.MAX_VALUE, Long.MAX_VALUE, 10);
+    }
+
+    private Map<String, Integer> terms(String title, String summary, String content) {
+        return InMemorySearchEngine.termFrequencies(title, summary, content);
+    }
+}
@@ -0,0 +1,49 @@
+package com.raptiye.blog.search;
+
+import com.raptiye.blog.dto.response.PostSearchResponse;
+import com.raptiye.blog.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PostgresSearchEngineTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @InjectMocks
+    private PostgresSearchEngine searchEngine;
+
+    @Test
+    void shouldEscapeMarkupInHeadlineAndKeepOnlyMatchHighlights() {
+        // Arrange
+        PostRepository.SearchHit hit = mock(PostRepository.SearchHit.class);
+        when(hit.getId()).thenReturn(1L);
+        when(hit.getHeadline()).thenReturn("<script>alert(1)</script> learn \u0001java\u0002 "
+                + "<img src=x onerror=alert(2)> & <mark>more\u0001java\u0002</mark>");
+        when(postRepository.searchPublished("java", Float.MAX_VALUE, Long.MAX_VALUE, 21)).thenReturn(List.of(hit));
+
+        // Act
+        List<PostSearchResponse> results = searchEngine.search("java", Float.MAX_VALUE, Long.MAX_VALUE, 21);
+
+        // Assert
+        assertThat(results).singleElement().satisfies(result -> assertThat(result.getHeadline()).isEqualTo(
+                "&lt;script&gt;alert(1)&lt;/script&gt; learn <mark>java</mark> "
+                        + "&lt;img src=x onerror=alert(2)&gt; &amp; &lt;mark&gt;more<mark>java</mark>&lt;/mark&gt;"));
+    }
+
+    @Test
+    void shouldKeepMissingHeadlineNull() {
+        // Act & Assert
+        assertThat(PostgresSearchEngine.toHtml(null)).isNull();
+    }
+}
@@ -0,0 +1,109 @@
+package com.raptiye.blog.search;
+
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.PostTagsChangedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
+import com.raptiye.blog.repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TagBitmapIndexTest {
+
+    private static final long JAVA = 1L;
+    private static final long SPRING = 2L;
+    private static final long KOTLIN = 3L;
+
+    private final PostRepository postRepository = mock(PostRepository.class);
+    private final TagBitmapIndex index = new TagBitmapIndex(postRepository);
+
+    @BeforeEach
+    void setUp() {
+        publish(1L, true, JAVA);
+        publish(2L, true, JAVA, SPRING);
+        publish(3L, true, SPRING, KOTLIN);
+        publish(4L, false, JAVA, SPRING);
+        publish(5L, true, KOTLIN);
+    }
+
+    @Test
+    void shouldIntersectTagsInAllMode() {
+        // Act
+        List<Long> ids = index.findPublishedPostIds(List.of(JAVA, SPRING), List.of(), true, Long.MAX_VALUE, 10);
+
+        // Assert
+        assertThat(ids).containsExactly(2L);
+    }
+
+    @Test
+    void shouldUnionTagsInAnyModeNewestFirst() {
+        // Act
+        List<Long> ids = index.findPublishedPostIds(List.of(JAVA, SPRING), List.of(), false, Long.MAX_VALUE, 10);
+
+        // Assert
+        assertThat(ids).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void shouldExcludeTags() {
+        // Act
+        List<Long> ids = index.findPublishedPostIds(List.of(), List.of(KOTLIN), true, Long.MAX_VALUE, 10);
+
+        // Assert
+        assertThat(ids).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldPageBelowCursorId() {
+        // Act
+        List<Long> ids = index.findPublishedPostIds(List.of(JAVA, SPRING), List.of(), false, 3L, 1);
+
+        // Assert
+        assertThat(ids).containsExactly(2L);
+    }
+
+    @Test
+    void shouldFollowTagAndPublishChanges() {
+        // Act
+        index.onPostTagsChanged(new PostTagsChangedEvent(1L, Set.of(KOTLIN)));
+        publish(4L, true, JAVA, SPRING);
+        index.onPostDeleted(new PostDeletedEvent(2L, Set.of(JAVA, SPRING)));
+        index.onTagDeleted(new TagDeletedEvent(SPRING));
+
+        // Assert
+        assertThat(index.findPublishedPostIds(List.of(JAVA), List.of(), true, Long.MAX_VALUE, 10))
+                .containsExactly(4L);
+        assertThat(index.findPublishedPostIds(List.of(KOTLIN), List.of(), true, Long.MAX_VALUE, 10))
+                .containsExactly(5L, 3L, 1L);
+        assertThat(index.findPublishedPostIds(List.of(SPRING), List.of(), true, Long.MAX_VALUE, 10))
+                .isEmpty();
+    }
+
+    @Test
+    void shouldFallBackToDatabaseOncePostIdExceedsBitmapRange() {
+        // Arrange
+        long largeId = Integer.MAX_VALUE + 1L;
+        when(postRepository.findPublishedIdsByTags(false, true, Set.of(JAVA, SPRING), 2, List.of(0L), Long.MAX_VALUE,
+                Limit.of(10))).thenReturn(List.of(largeId, 2L));
+
+        // Act
+        publish(largeId, true, JAVA, SPRING);
+        index.onPostTagsChanged(new PostTagsChangedEvent(largeId, Set.of(KOTLIN)));
+        List<Long> ids = index.findPublishedPostIds(List.of(JAVA, SPRING), List.of(), true, Long.MAX_VALUE, 10);
+
+        // Assert
+        assertThat(ids).containsExactly(largeId, 2L);
+    }
+
+    private void publish(Long postId, boolean published, Long... tagIds) {
+        index.onPostChanged(new PostChangedEvent(postId, published, false, "t", "s", "c", Set.of(tagIds)));
+    }
+}
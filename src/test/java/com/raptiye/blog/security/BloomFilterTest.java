@@ -0,0 +1,52 @@
+package com.raptiye.blog.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void shouldContainEveryAddedKey() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        String[] keys = IntStream.range(0, 1_000).mapToObj(i -> UUID.randomUUID().toString()).toArray(String[]::new);
+
+        // Act
+        for (String key : keys) {
+            filter.put(key);
+        }
+
+        // Assert
+        for (String key : keys) {
+            assertThat(filter.mightContain(key)).isTrue();
+        }
+    }
+
+    @Test
+    void shouldKeepFalsePositivesNearConfiguredRate() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("revoked-" + i));
+
+        // Act
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("active-" + i))
+                .count();
+
+        // Assert
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void shouldStayCompact() {
+        // Act
+        BloomFilter filter = new BloomFilter(100_000, 0.001);
+
+        // Assert: about 14.4 bits per entry at 0.1%
+        assertThat(filter.sizeInBytes()).isLessThan(200_000);
+    }
+}
@@ -0,0 +1,99 @@
+package com.raptiye.blog.security;
+
+import com.raptiye.blog.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BoundedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void shouldDelegateAndRecordLatency() {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(new ReversingEncoder(false), 1, 1, Duration.ofSeconds(1), meterRegistry);
+
+        // Act
+        String encoded = encoder.encode("secret");
+        boolean matches = encoder.matches("secret", encoded);
+
+        // Assert
+        assertThat(encoded).isEqualTo("terces");
+        assertThat(matches).isTrue();
+        assertThat(meterRegistry.get("auth.password.hashing").tag("operation", "encode").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectWhenPoolAndQueueAreFull() throws Exception {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(new ReversingEncoder(true), 1, 1, Duration.ofSeconds(5), meterRegistry);
+        CompletableFuture.runAsync(() -> encoder.encode("running"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture.runAsync(() -> encoder.encode("queued"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("auth.password.queue").gauge().value() < 1) {
+            assertThat(System.nanoTime()).as("second hash never queued").isLessThan(deadline);
+            Thread.sleep(1);
+        }
+
+        // Act & Assert
+        assertThrows(ServiceBusyException.class, () -> encoder.encode("rejected"));
+        assertThat(meterRegistry.get("auth.password.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxWait() {
+        // Arrange
+        encoder = new BoundedPasswordEncoder(new ReversingEncoder(true), 1, 1, Duration.ofMillis(50), meterRegistry);
+
+        // Act & Assert
+        assertThrows(ServiceBusyException.class, () -> encoder.encode("slow"));
+    }
+
+    // Stands in for BCrypt; optionally blocks until the test releases it
+    private class ReversingEncoder implements PasswordEncoder {
+
+        private final boolean blocking;
+
+        ReversingEncoder(boolean blocking) {
+            this.blocking = blocking;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            if (blocking) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return new StringBuilder(rawPassword).reverse().toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.raptiye.blog.security;
+
+import com.raptiye.blog.domain.Role;
+import com.raptiye.blog.domain.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "NDIzdTg5NzIzOTg0NzIzODk0NzIzODk3NDg5MjczNDg5NzIzODk0NzIzODk3NDg5MjM3NDg5MjM=";
+
+    @Mock
+    private TokenVersions tokenVersions;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    private JwtUtil jwtUtil;
+    private JwtAuthenticationFilter filter;
+
+    private final User admin = User.builder().id(1L).username("admin").role(Role.ADMIN).tokenVersion(2).build();
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = new JwtUtil(new SimpleMeterRegistry(), SECRET, 60_000, 100);
+        filter = new JwtAuthenticationFilter(jwtUtil, tokenVersions, tokenRevocations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldAuthenticateFromClaimsAlone() throws Exception {
+        // Arrange
+        when(tokenVersions.isCurrent(1L, 2)).thenReturn(true);
+
+        // Act
+        Authentication authentication = filter(jwtUtil.generateToken(admin));
+
+        // Assert
+        assertThat(authentication.getPrincipal()).isEqualTo(new AuthenticatedUser(1L, "admin", Role.ADMIN));
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void shouldRejectTokenWithOutdatedVersion() throws Exception {
+        // Arrange
+        when(tokenVersions.isCurrent(1L, 2)).thenReturn(false);
+
+        // Act
+        Authentication authentication = filter(jwtUtil.generateToken(admin));
+
+        // Assert
+        assertThat(authentication).isNull();
+    }
+
+    @Test
+    void shouldRejectRevokedToken() throws Exception {
+        // Arrange
+        when(tokenVersions.isCurrent(1L, 2)).thenReturn(true);
+        when(tokenRevocations.isRevoked(anyString())).thenReturn(true);
+
+        // Act
+        Authentication authentication = filter(jwtUtil.generateToken(admin));
+
+        // Assert
+        assertThat(authentication).isNull();
+    }
+
+    @Test
+    void shouldIgnoreInvalidToken() throws Exception {
+        // Act
+        Authentication authentication = filter("not-a-token");
+
+        // Assert
+        assertThat(authentication).isNull();
+        verifyNoInteractions(tokenVersions);
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/comments/pending");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,100 @@
+package com.raptiye.blog.security;
+
+import com.raptiye.blog.domain.Role;
+import com.raptiye.blog.domain.User;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "NDIzdTg5NzIzOTg0NzIzODk0NzIzODk3NDg5MjczNDg5NzIzODk0NzIzODk3NDg5MjM3NDg5MjM=";
+
+    private final User user = User.builder().id(7L).username("alice").role(Role.ADMIN).tokenVersion(3).build();
+
+    @Test
+    void shouldReturnClaimsOfValidToken() {
+        // Arrange
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        String token = jwtUtil.generateToken(user);
+
+        // Act
+        Optional<Claims> claims = jwtUtil.parseVerified(token);
+
+        // Assert
+        assertThat(claims).map(Claims::getSubject).contains("alice");
+        assertThat(jwtUtil.validateToken(token, user)).isTrue();
+    }
+
+    @Test
+    void shouldEmbedUserIdRoleAndTokenVersion() {
+        // Arrange
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        Claims claims = jwtUtil.parseVerified(jwtUtil.generateToken(user)).orElseThrow();
+
+        // Act
+        Optional<AuthenticatedUser> principal = jwtUtil.toPrincipal(claims);
+
+        // Assert
+        assertThat(principal).contains(new AuthenticatedUser(7L, "alice", Role.ADMIN));
+        assertThat(jwtUtil.tokenVersion(claims)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldServeRepeatedVerificationFromCache() {
+        // Arrange
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        String token = jwtUtil.generateToken(user);
+        Claims first = jwtUtil.parseVerified(token).orElseThrow();
+
+        // Act
+        Claims second = jwtUtil.parseVerified(token).orElseThrow();
+
+        // Assert
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void shouldRejectTamperedToken() {
+        // Arrange
+        JwtUtil jwtUtil = jwtUtil(60_000);
+        String token = jwtUtil.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        // Act
+        Optional<Claims> claims = jwtUtil.parseVerified(tampered);
+
+        // Assert
+        assertThat(claims).isEmpty();
+        assertThat(jwtUtil.extractUsername(tampered)).isNull();
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        // Arrange
+        JwtUtil jwtUtil = jwtUtil(-1_000);
+        String token = jwtUtil.generateToken(user);
+
+        // Act
+        Optional<Claims> claims = jwtUtil.parseVerified(token);
+
+        // Assert
+        assertThat(claims).isEmpty();
+        assertThat(jwtUtil.validateToken(token, user)).isFalse();
+    }
+
+    @Test
+    void shouldRejectMalformedToken() {
+        // Act & Assert
+        assertThat(jwtUtil(60_000).parseVerified("not-a-token")).isEmpty();
+    }
+
+    private JwtUtil jwtUtil(long expirationMillis) {
+        return new JwtUtil(new SimpleMeterRegistry(), SECRET, expirationMillis, 100);
+    }
+}
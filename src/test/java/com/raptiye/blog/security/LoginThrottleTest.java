@@ -0,0 +1,59 @@
+package com.raptiye.blog.security;
+
+import com.raptiye.blog.exception.TooManyAttemptsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginThrottleTest {
+
+    private final LoginThrottle throttle = new LoginThrottle(new SimpleMeterRegistry(),
+            5, Duration.ofMinutes(1), 3, Duration.ofMinutes(15));
+
+    @Test
+    void shouldBlockUsernameAfterRepeatedFailures() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            throttle.checkLogin("alice", "10.0.0." + i);
+            throttle.recordFailure("Alice");
+        }
+
+        // Act
+        TooManyAttemptsException ex = assertThrows(TooManyAttemptsException.class,
+                () -> throttle.checkLogin("alice", "10.0.0.9"));
+
+        // Assert
+        assertThat(ex.getRetryAfterSeconds()).isBetween(1L, 900L);
+        assertThatCode(() -> throttle.checkLogin("bob", "10.0.0.9")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldResetFailuresAfterSuccessfulLogin() {
+        // Arrange
+        throttle.recordFailure("alice");
+        throttle.recordFailure("alice");
+        throttle.recordSuccess("alice");
+        throttle.recordFailure("alice");
+        throttle.recordFailure("alice");
+
+        // Act & Assert
+        assertThatCode(() -> throttle.checkLogin("alice", "10.0.0.1")).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldBlockClientAfterTooManyAttempts() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            throttle.checkClient("10.0.0.1");
+        }
+
+        // Act & Assert
+        assertThrows(TooManyAttemptsException.class, () -> throttle.checkLogin("carol", "10.0.0.1"));
+        assertThatCode(() -> throttle.checkClient("10.0.0.2")).doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,65 @@
+package com.raptiye.blog.security;
+
+import com.raptiye.blog.domain.RevokedToken;
+import com.raptiye.blog.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationsTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocations revocations;
+
+    @BeforeEach
+    void setUp() {
+        revocations = new TokenRevocations(revokedTokenRepository, new SimpleMeterRegistry(), 1000, 0.001);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void shouldRejectTokenOnlyAfterRevocationCommits() {
+        // Act
+        revocations.revoke("jti-1", LocalDateTime.now().plusMinutes(5));
+        boolean beforeCommit = revocations.isRevoked("jti-1");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        // Assert
+        verify(revokedTokenRepository).save(any(RevokedToken.class));
+        assertThat(beforeCommit).isFalse();
+        assertThat(revocations.isRevoked("jti-1")).isTrue();
+        verify(revokedTokenRepository, never()).existsById(any());
+    }
+
+    @Test
+    void shouldKeepAcceptingTokenWhenRevocationRollsBack() {
+        // Act
+        revocations.revoke("jti-1", LocalDateTime.now().plusMinutes(5));
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Assert
+        assertThat(revocations.isRevoked("jti-1")).isFalse();
+        verify(revokedTokenRepository, never()).existsById(any());
+    }
+}
@@ -3,29 +3,46 @@ package com.raptiye.blog.service;
 import com.raptiye.blog.domain.Role;
 import com.raptiye.blog.domain.User;
 import com.raptiye.blog.dto.request.LoginRequest;
+import com.raptiye.blog.dto.request.RefreshTokenRequest;
 import com.raptiye.blog.dto.request.RegisterRequest;
 import com.raptiye.blog.dto.response.AuthResponse;
+import com.raptiye.blog.exception.InvalidTokenException;
+import com.raptiye.blog.exception.TooManyAttemptsException;
 import com.raptiye.blog.repository.UserRepository;
 import com.raptiye.blog.security.JwtUtil;
+import com.raptiye.blog.security.LoginThrottle;
+import com.raptiye.blog.security.TokenRevocations;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AuthServiceTest {
 
+    private static final String CLIENT_IP = "203.0.113.7";
+
     @Mock
     private UserRepository userRepository;
 
@@ -38,9 +55,27 @@ class AuthServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocations tokenRevocations;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @InjectMocks
     private AuthService authService;
 
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
     @Test
     void shouldRegisterUser() {
         // Arrange
@@ -60,12 +95,16 @@ class AuthServiceTest {
         when(jwtUtil.generateToken(any(User.class))).thenReturn("jwtToken");
 
         // Act
-        AuthResponse response = authService.register(request);
+        AuthResponse response = authService.register(request, CLIENT_IP);
 
         // Assert
         assertThat(response.getToken()).isEqualTo("jwtToken");
         assertThat(response.getUsername()).isEqualTo("testuser");
-        verify(userRepository).save(any(User.class));
+        // Hashing happens before the write transaction opens
+        InOrder inOrder = inOrder(passwordEncoder, transactionTemplate, userRepository);
+        inOrder.verify(passwordEncoder).encode("password");
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(userRepository).save(any(User.class));
     }
 
     @Test
@@ -77,7 +116,7 @@ class AuthServiceTest {
         when(userRepository.existsByUsername(request.getUsername())).thenReturn(true);
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> authService.register(request));
+        assertThrows(IllegalArgumentException.class, () -> authService.register(request, CLIENT_IP));
         verify(userRepository, never()).save(any(User.class));
     }
 
@@ -95,13 +134,53 @@ class AuthServiceTest {
 
         when(userRepository.findByUsername(request.getUsername())).thenReturn(Optional.of(user));
         when(jwtUtil.generateToken(user)).thenReturn("jwtToken");
+        when(refreshTokenService.issue(user)).thenReturn("refreshToken");
 
         // Act
-        AuthResponse response = authService.login(request);
+        AuthResponse response = authService.login(request, CLIENT_IP);
 
         // Assert
         assertThat(response.getToken()).isEqualTo("jwtToken");
-        verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        assertThat(response.getRefreshToken()).isEqualTo("refreshToken");
+        // Only the lookup and the token issue run in the transaction, after BCrypt
+        InOrder inOrder = inOrder(authenticationManager, transactionTemplate, userRepository, refreshTokenService);
+        inOrder.verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(userRepository).findByUsername("testuser");
+        inOrder.verify(refreshTokenService).issue(user);
+        verify(loginThrottle).checkLogin("testuser", CLIENT_IP);
+        verify(loginThrottle).recordSuccess("testuser");
+    }
+
+    @Test
+    void shouldRecordFailedLogin() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("wrongpassword");
+
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenThrow(new BadCredentialsException("Bad credentials"));
+
+        // Act & Assert
+        assertThrows(BadCredentialsException.class, () -> authService.login(request, CLIENT_IP));
+        verify(loginThrottle).recordFailure("testuser");
+        verify(loginThrottle, never()).recordSuccess(anyString());
+    }
+
+    @Test
+    void shouldNotAuthenticateThrottledLogin() {
+        // Arrange
+        LoginRequest request = new LoginRequest();
+        request.setUsername("testuser");
+        request.setPassword("password");
+
+        doThrow(new TooManyAttemptsException("Too many failed logins", 60))
+                .when(loginThrottle).checkLogin("testuser", CLIENT_IP);
+
+        // Act & Assert
+        assertThrows(TooManyAttemptsException.class, () -> authService.login(request, CLIENT_IP));
+        verifyNoInteractions(authenticationManager);
     }
 
     @Test
@@ -115,6 +194,49 @@ class AuthServiceTest {
                 .thenThrow(new IllegalArgumentException("Invalid credentials"));
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class, () -> authService.login(request));
+        assertThrows(IllegalArgumentException.class, () -> authService.login(request, CLIENT_IP));
+    }
+
+    @Test
+    void shouldRotateRefreshTokenAndIssueAccessTokenFromCurrentUser() {
+        // Arrange
+        User user = User.builder().id(1L).username("testuser").email("test@example.com").role(Role.ADMIN).build();
+        when(refreshTokenService.rotate("old-refresh"))
+                .thenReturn(new RefreshTokenService.Rotation(user, "new-refresh"));
+        when(jwtUtil.generateToken(user)).thenReturn("jwtToken");
+        when(jwtUtil.getExpirationSeconds()).thenReturn(900L);
+
+        // Act
+        AuthResponse response = authService.refresh(new RefreshTokenRequest("old-refresh"));
+
+        // Assert
+        assertThat(response.getToken()).isEqualTo("jwtToken");
+        assertThat(response.getRefreshToken()).isEqualTo("new-refresh");
+        assertThat(response.getExpiresIn()).isEqualTo(900L);
+        assertThat(response.getRole()).isEqualTo("ADMIN");
+    }
+
+    @Test
+    void shouldRejectRefreshWhenRotationFails() {
+        // Arrange
+        when(refreshTokenService.rotate("reused")).thenThrow(new InvalidTokenException("Invalid refresh token"));
+
+        // Act & Assert
+        assertThrows(InvalidTokenException.class, () -> authService.refresh(new RefreshTokenRequest("reused")));
+        verify(jwtUtil, never()).generateToken(any(User.class));
+    }
+
+    @Test
+    void shouldRevokeRefreshFamilyAndAccessTokenOnLogout() {
+        // Arrange
+        Claims claims = Jwts.claims().id("jti-1").expiration(new Date(System.currentTimeMillis() + 60_000)).build();
+        when(jwtUtil.parseVerified("access")).thenReturn(Optional.of(claims));
+
+        // Act
+        authService.logout(new RefreshTokenRequest("refresh"), "access");
+
+        // Assert
+        verify(refreshTokenService).revoke("refresh");
+        verify(tokenRevocations).revoke(eq("jti-1"), any(LocalDateTime.class));
     }
 }
@@ -0,0 +1,115 @@
+package com.raptiye.blog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BlogExportServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private StatelessSession session;
+
+    @Mock
+    private Transaction transaction;
+
+    private BlogExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.openStatelessSession()).thenReturn(session);
+        when(session.getTransaction()).thenReturn(transaction);
+        exportService = new BlogExportService(entityManagerFactory, new ObjectMapper(), 500, 1);
+    }
+
+    @Test
+    void shouldMergeTagsAndCommentsIntoTheirPostLines() throws Exception {
+        // Arrange
+        query("SELECT p.id, p.slug", List.of(
+                new Object[] {1L, "first", "First", null, "One", true, CREATED, CREATED},
+                new Object[] {2L, "second", "Second", "Sum", "Two", false, CREATED, CREATED},
+                new Object[] {3L, "third", "Third", null, "Three", true, CREATED, null}));
+        query("SELECT p.id, t.name", List.of(
+                new Object[] {1L, "Java"},
+                new Object[] {1L, "Spring"},
+                new Object[] {3L, "Java"}));
+        query("SELECT c.post.id", List.of(
+                new Object[] {2L, "Ann", "ann@example.com", "Nice post", true, CREATED},
+                new Object[] {2L, "Bob", "bob@example.com", "Spam", false, CREATED}));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        long exported = exportService.export(out);
+
+        // Assert
+        assertThat(exported).isEqualTo(3);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode first = mapper.readTree(lines[0]);
+        JsonNode second = mapper.readTree(lines[1]);
+        JsonNode third = mapper.readTree(lines[2]);
+        assertThat(first.get("tags")).extracting(JsonNode::asText).containsExactly("Java", "Spring");
+        assertThat(first.get("comments")).isEmpty();
+        assertThat(second.get("tags")).isEmpty();
+        assertThat(second.get("comments")).extracting(comment -> comment.get("authorName").asText())
+                .containsExactly("Ann", "Bob");
+        assertThat(second.get("comments").get(1).get("approved").asBoolean()).isFalse();
+        assertThat(third.get("tags")).extracting(JsonNode::asText).containsExactly("Java");
+        assertThat(third.get("createdAt").asText()).isEqualTo("2024-05-01T12:00");
+        assertThat(third.get("updatedAt").isNull()).isTrue();
+        verify(transaction).rollback();
+        verify(session).close();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void query(String prefix, List<Object[]> rows) {
+        SelectionQuery<Object[]> query = mock(SelectionQuery.class);
+        ScrollableResults<Object[]> results = mock(ScrollableResults.class);
+        Iterator<Object[]> iterator = rows.iterator();
+        AtomicReference<Object[]> current = new AtomicReference<>();
+
+        when(session.createSelectionQuery(startsWith(prefix), eq(Object[].class))).thenReturn(query);
+        when(query.setFetchSize(anyInt())).thenReturn(query);
+        when(query.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(results);
+        when(results.next()).thenAnswer(invocation -> {
+            current.set(iterator.hasNext() ? iterator.next() : null);
+            return current.get() != null;
+        });
+        lenient().when(results.get()).thenAnswer(invocation -> current.get());
+    }
+}
@@ -0,0 +1,198 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.dto.request.CreateCommentRequest;
+import com.raptiye.blog.exception.ResourceNotFoundException;
+import com.raptiye.blog.exception.ServiceBusyException;
+import com.raptiye.blog.repository.PostRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CommentIngestionQueueTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PostRepository postRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CommentIngestionQueue ingestionQueue;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ingestionQueue = new CommentIngestionQueue(jdbcTemplate, transactionManager, postRepository, meterRegistry,
+                1, 500, 2, Duration.ZERO, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void shouldRejectCommentOnUnknownPost() {
+        // Arrange
+        when(postRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> ingestionQueue.enqueue(99L, request()));
+    }
+
+    @Test
+    void shouldRejectWhenQueueIsFullWithoutQueryingPostAgain() {
+        // Arrange
+        when(postRepository.existsById(1L)).thenReturn(true);
+        ingestionQueue.enqueue(1L, request());
+
+        // Act & Assert
+        assertThrows(ServiceBusyException.class, () -> ingestionQueue.enqueue(1L, request()));
+        verify(postRepository, times(1)).existsById(1L);
+        assertThat(meterRegistry.get("comments.ingest.queue").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("comments.ingest.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWriteBatchInOneStatementBatch() throws Exception {
+        // Act
+        ingestionQueue.write(List.of(pending(1L), pending(1L), pending(2L)));
+
+        // Assert
+        verify(jdbcTemplate).batchUpdate(eq(CommentIngestionQueue.INSERT_SQL),
+                argThat((List<Object[]> rows) -> rows.size() == 3));
+        verify(transactionManager).commit(any());
+        assertThat(meterRegistry.get("comments.ingest.written").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRetryFailedBatch() throws Exception {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(eq(CommentIngestionQueue.INSERT_SQL), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"))
+                .thenReturn(new int[] {1, 1});
+
+        // Act
+        ingestionQueue.write(List.of(pending(1L), pending(1L)));
+
+        // Assert
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(CommentIngestionQueue.INSERT_SQL), anyList());
+        assertThat(meterRegistry.get("comments.ingest.written").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDropBatchWhenRetriesAreExhausted() throws Exception {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(eq(CommentIngestionQueue.INSERT_SQL), anyList()))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        // Act
+        ingestionQueue.write(List.of(pending(1L)));
+
+        // Assert
+        verify(jdbcTemplate, times(3)).batchUpdate(eq(CommentIngestionQueue.INSERT_SQL), anyList());
+        assertThat(meterRegistry.get("comments.ingest.dropped").tag("reason", "retries-exhausted")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropOnlyRowsOfDeletedPosts() throws Exception {
+        // Arrange
+        when(jdbcTemplate.batchUpdate(eq(CommentIngestionQueue.INSERT_SQL), anyList()))
+                .thenThrow(new DataIntegrityViolationException("fk_comments_post"));
+        when(jdbcTemplate.update(eq(CommentIngestionQueue.INSERT_SQL), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    if (invocation.getArgument(1).equals(2L)) {
+                        throw new DataIntegrityViolationException("fk_comments_post");
+                    }
+                    return 1;
+                });
+
+        // Act
+        ingestionQueue.write(List.of(pending(1L), pending(2L), pending(1L)));
+
+        // Assert
+        assertThat(meterRegistry.get("comments.ingest.written").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("comments.ingest.dropped").tag("reason", "constraint")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldWriteEveryAcceptedCommentWhenShutdownRacesWithEnqueue() throws Exception {
+        // Arrange
+        AtomicInteger writtenRows = new AtomicInteger();
+        when(postRepository.existsById(1L)).thenReturn(true);
+        when(jdbcTemplate.batchUpdate(eq(CommentIngestionQueue.INSERT_SQL), anyList())).thenAnswer(invocation -> {
+            writtenRows.addAndGet(invocation.<List<?>>getArgument(1).size());
+            return new int[0];
+        });
+
+        // Act & Assert: the window is short, so repeat the race
+        for (int round = 0; round < 50; round++) {
+            writtenRows.set(0);
+            int accepted = enqueueDuringShutdown(new CommentIngestionQueue(jdbcTemplate, transactionManager,
+                    postRepository, meterRegistry, 100_000, 500, 0, Duration.ZERO, Duration.ofSeconds(10)));
+            assertThat(writtenRows.get()).as("round %d", round).isEqualTo(accepted);
+        }
+    }
+
+    private static int enqueueDuringShutdown(CommentIngestionQueue racingQueue) throws Exception {
+        racingQueue.start();
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch enqueueing = new CountDownLatch(4);
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            clients.execute(() -> {
+                enqueueing.countDown();
+                try {
+                    while (true) {
+                        racingQueue.enqueue(1L, request());
+                        accepted.incrementAndGet();
+                    }
+                } catch (ServiceBusyException e) {
+                    // Shutting down
+                }
+            });
+        }
+        assertThat(enqueueing.await(5, TimeUnit.SECONDS)).isTrue();
+        racingQueue.shutdown();
+        clients.shutdown();
+        assertThat(clients.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        return accepted.get();
+    }
+
+    private static CreateCommentRequest request() {
+        CreateCommentRequest request = new CreateCommentRequest();
+        request.setAuthorName("Ann");
+        request.setAuthorEmail("ann@example.com");
+        request.setContent("Nice post");
+        return request;
+    }
+
+    private static CommentIngestionQueue.PendingComment pending(Long postId) {
+        return new CommentIngestionQueue.PendingComment(postId, "Ann", "ann@example.com", "Nice post",
+                LocalDateTime.now());
+    }
+}
@@ -2,25 +2,39 @@ package com.raptiye.blog.service;
 
 import com.raptiye.blog.domain.Comment;
 import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.dto.request.BulkCommentRequest;
 import com.raptiye.blog.dto.request.CreateCommentRequest;
+import com.raptiye.blog.dto.response.BulkCommentResponse;
 import com.raptiye.blog.dto.response.CommentResponse;
+import com.raptiye.blog.dto.response.CursorPageResponse;
+import com.raptiye.blog.event.CommentChangedEvent;
 import com.raptiye.blog.exception.ResourceNotFoundException;
 import com.raptiye.blog.mapper.CommentMapper;
 import com.raptiye.blog.repository.CommentRepository;
 import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.util.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,27 +49,30 @@ class CommentServiceTest {
     @Mock
     private CommentMapper commentMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private CommentService commentService;
 
     @Test
-    void shouldGetApprovedCommentsByPostId() {
+    void shouldGetApprovedCommentsPageByPostId() {
         // Arrange
         Long postId = 1L;
-        Comment comment = Comment.builder().id(1L).approved(true).build();
-        CommentResponse response = new CommentResponse();
-        response.setId(1L);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        CommentResponse newest = CommentResponse.builder().id(3L).postId(postId).approved(true).createdAt(createdAt).build();
+        CommentResponse older = CommentResponse.builder().id(2L).postId(postId).approved(true).createdAt(createdAt).build();
 
-        when(commentRepository.findByPostIdAndApprovedTrueOrderByCreatedAtDesc(postId))
-                .thenReturn(Collections.singletonList(comment));
-        when(commentMapper.toResponse(comment)).thenReturn(response);
+        when(commentRepository.findApprovedByPostId(postId, Limit.of(2))).thenReturn(List.of(newest, older));
 
         // Act
-        List<CommentResponse> results = commentService.getApprovedCommentsByPostId(postId);
+        CursorPageResponse<CommentResponse> page = commentService.getCommentsByPostId(postId, false, null, 1);
 
         // Assert
-        assertThat(results).hasSize(1);
-        assertThat(results.get(0).getId()).isEqualTo(1L);
+        assertThat(page.getContent()).containsExactly(newest);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(new KeysetCursor(createdAt, 3L));
+        verifyNoInteractions(postRepository, commentMapper);
     }
 
     @Test
@@ -104,73 +121,208 @@ class CommentServiceTest {
     void shouldApproveComment() {
         // Arrange
         Long commentId = 1L;
-        Comment comment = Comment.builder().id(commentId).approved(false).build();
-        Comment approvedComment = Comment.builder().id(commentId).approved(true).build();
+        Post post = Post.builder().id(10L).build();
+        Comment comment = Comment.builder().id(commentId).approved(false).post(post).build();
         CommentResponse response = new CommentResponse();
         response.setId(commentId);
-        response.setApproved(true);
 
         when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
-        when(commentRepository.save(any(Comment.class))).thenReturn(approvedComment);
-        when(commentMapper.toResponse(approvedComment)).thenReturn(response);
+        when(commentRepository.approveIfPending(commentId)).thenReturn(1);
+        when(commentMapper.toResponse(comment)).thenReturn(response);
 
         // Act
         CommentResponse result = commentService.approveComment(commentId);
 
         // Assert
         assertThat(result.isApproved()).isTrue();
-        verify(commentRepository).save(any(Comment.class));
+        assertThat(comment.isApproved()).isFalse();
+        verify(commentRepository, never()).save(any(Comment.class));
+        verify(postRepository).incrementApprovedCommentCount(10L);
+        verify(eventPublisher).publishEvent(new CommentChangedEvent(10L));
+    }
+
+    @Test
+    void shouldNotIncrementCountWhenCommentAlreadyApproved() {
+        // Arrange
+        Long commentId = 1L;
+        Post post = Post.builder().id(10L).build();
+        Comment comment = Comment.builder().id(commentId).approved(true).post(post).build();
+
+        when(commentRepository.findById(commentId)).thenReturn(Optional.of(comment));
+        when(commentRepository.approveIfPending(commentId)).thenReturn(0);
+        when(commentMapper.toResponse(comment)).thenReturn(new CommentResponse());
+
+        // Act
+        commentService.approveComment(commentId);
+
+        // Assert
+        verify(postRepository, never()).incrementApprovedCommentCount(anyLong());
+        verify(commentRepository, never()).save(any(Comment.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void shouldDeleteComment() {
         // Arrange
         Long commentId = 1L;
-        when(commentRepository.existsById(commentId)).thenReturn(true);
+        Post post = Post.builder().id(10L).build();
+        Comment comment = Comment.builder().id(commentId).approved(false).post(post).build();
+        when(commentRepository.findByIdForUpdate(commentId)).thenReturn(Optional.of(comment));
 
         // Act
         commentService.deleteComment(commentId);
 
         // Assert
-        verify(commentRepository).deleteById(commentId);
+        verify(commentRepository).delete(comment);
+        verify(postRepository, never()).decrementApprovedCommentCount(anyLong());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void shouldGetPendingComments() {
+    void shouldDecrementCountWhenDeletingApprovedComment() {
         // Arrange
-        Comment comment = Comment.builder().id(1L).approved(false).build();
-        CommentResponse response = new CommentResponse();
-        response.setId(1L);
-        response.setApproved(false);
+        Long commentId = 1L;
+        Post post = Post.builder().id(10L).build();
+        Comment comment = Comment.builder().id(commentId).approved(true).post(post).build();
+        when(commentRepository.findByIdForUpdate(commentId)).thenReturn(Optional.of(comment));
 
-        when(commentRepository.findByApprovedFalseOrderByCreatedAtDesc())
-                .thenReturn(Collections.singletonList(comment));
-        when(commentMapper.toResponse(comment)).thenReturn(response);
+        // Act
+        commentService.deleteComment(commentId);
+
+        // Assert
+        verify(commentRepository).delete(comment);
+        verify(postRepository).decrementApprovedCommentCount(10L);
+        verify(eventPublisher).publishEvent(new CommentChangedEvent(10L));
+    }
+
+    @Test
+    void shouldThrowExceptionWhenDeletingNonExistentComment() {
+        // Arrange
+        Long commentId = 99L;
+        when(commentRepository.findByIdForUpdate(commentId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> commentService.deleteComment(commentId));
+        verify(commentRepository, never()).delete(any(Comment.class));
+    }
+
+    @Test
+    void shouldGetPendingCommentsPageWithCursor() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        CommentResponse newest = CommentResponse.builder().id(3L).postId(10L).createdAt(createdAt).build();
+        CommentResponse older = CommentResponse.builder().id(2L).postId(10L).createdAt(createdAt).build();
+        CommentResponse oldest = CommentResponse.builder().id(1L).postId(11L).createdAt(createdAt).build();
+
+        when(commentRepository.findPending(Limit.of(3))).thenReturn(List.of(newest, older, oldest));
 
         // Act
-        List<CommentResponse> results = commentService.getPendingComments();
+        CursorPageResponse<CommentResponse> page = commentService.getPendingComments(null, 2);
 
         // Assert
-        assertThat(results).hasSize(1);
-        assertThat(results.get(0).isApproved()).isFalse();
+        assertThat(page.getContent()).containsExactly(newest, older);
+        assertThat(page.isHasNext()).isTrue();
+        assertThat(KeysetCursor.decode(page.getNextCursor())).isEqualTo(new KeysetCursor(createdAt, 2L));
+        verifyNoInteractions(postRepository, commentMapper);
     }
 
     @Test
-    void shouldGetAllCommentsByPostId() {
+    void shouldContinuePendingCommentsAfterCursor() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        CommentResponse oldest = CommentResponse.builder().id(1L).createdAt(createdAt).build();
+        String cursor = new KeysetCursor(createdAt, 2L).encode();
+
+        when(commentRepository.findPendingBefore(createdAt, 2L, Limit.of(3))).thenReturn(List.of(oldest));
+
+        // Act
+        CursorPageResponse<CommentResponse> page = commentService.getPendingComments(cursor, 2);
+
+        // Assert
+        assertThat(page.getContent()).containsExactly(oldest);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldBulkApproveAndRecountAffectedPosts() {
+        // Arrange
+        BulkCommentRequest request = BulkCommentRequest.builder().ids(List.of(1L, 2L, 3L)).build();
+        when(commentRepository.approvePendingInSelection(eq(true), eq(List.of(1L, 2L, 3L)), isNull(),
+                any(LocalDateTime.class))).thenReturn(List.of(10L, 11L, 10L));
+
+        // Act
+        BulkCommentResponse response = commentService.approveComments(request);
+
+        // Assert
+        assertThat(response.getAffected()).isEqualTo(3);
+        InOrder order = inOrder(commentRepository, postRepository);
+        order.verify(commentRepository).approvePendingInSelection(anyBoolean(), anyCollection(), any(), any());
+        order.verify(postRepository).lockByIds(List.of(10L, 11L));
+        order.verify(postRepository).recountApprovedComments(List.of(10L, 11L));
+        verify(eventPublisher).publishEvent(new CommentChangedEvent(10L));
+        verify(eventPublisher).publishEvent(new CommentChangedEvent(11L));
+        verify(commentRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void shouldBulkDeleteByPostCappingCreatedBeforeAtNow() {
+        // Arrange
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+        BulkCommentRequest request = BulkCommentRequest.builder().postId(10L).createdBefore(future).build();
+        ArgumentCaptor<LocalDateTime> createdBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        when(commentRepository.deleteSelection(eq(false), anyCollection(), eq(10L), createdBefore.capture()))
+                .thenReturn(List.of(10L, 10L, 10L));
+
+        // Act
+        BulkCommentResponse response = commentService.deleteComments(request);
+
+        // Assert
+        assertThat(response.getAffected()).isEqualTo(3);
+        assertThat(createdBefore.getValue()).isBefore(future);
+        verify(postRepository).recountApprovedComments(List.of(10L));
+    }
+
+    @Test
+    void shouldNotRecountWhenNothingMatched() {
+        // Arrange
+        BulkCommentRequest request = BulkCommentRequest.builder().postId(10L).build();
+        when(commentRepository.approvePendingInSelection(anyBoolean(), anyCollection(), eq(10L), any()))
+                .thenReturn(List.of());
+
+        // Act
+        BulkCommentResponse response = commentService.approveComments(request);
+
+        // Assert
+        assertThat(response.getAffected()).isZero();
+        verifyNoInteractions(postRepository, eventPublisher);
+    }
+
+    @Test
+    void shouldRejectBulkRequestWithoutCriteria() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> commentService.deleteComments(BulkCommentRequest.builder().ids(List.of()).build()));
+        verify(commentRepository, never()).deleteSelection(anyBoolean(), anyCollection(), any(), any());
+    }
+
+    @Test
+    void shouldContinueAllCommentsOfPostAfterCursor() {
         // Arrange
         Long postId = 1L;
-        Comment comment = Comment.builder().id(1L).build();
-        CommentResponse response = new CommentResponse();
-        response.setId(1L);
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 12, 0);
+        CommentResponse pending = CommentResponse.builder().id(1L).postId(postId).createdAt(createdAt).build();
+        String cursor = new KeysetCursor(createdAt, 2L).encode();
 
-        when(commentRepository.findByPostIdOrderByCreatedAtDesc(postId))
-                .thenReturn(Collections.singletonList(comment));
-        when(commentMapper.toResponse(comment)).thenReturn(response);
+        when(commentRepository.findByPostIdBefore(postId, createdAt, 2L, Limit.of(21))).thenReturn(List.of(pending));
 
         // Act
-        List<CommentResponse> results = commentService.getAllCommentsByPostId(postId);
+        CursorPageResponse<CommentResponse> page = commentService.getCommentsByPostId(postId, true, cursor, 20);
 
         // Assert
-        assertThat(results).hasSize(1);
+        assertThat(page.getContent()).containsExactly(pending);
+        assertThat(page.isHasNext()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+        verify(commentRepository, never()).findApprovedByPostIdBefore(anyLong(), any(), anyLong(), any());
     }
 }
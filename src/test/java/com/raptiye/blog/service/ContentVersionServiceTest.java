@@ -0,0 +1,162 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.domain.ContentVersion;
+import com.raptiye.blog.event.CommentChangedEvent;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.RelatedPostsChangedEvent;
+import com.raptiye.blog.event.TagCreatedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
+import com.raptiye.blog.repository.ContentVersionRepository;
+import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.util.ResourceVersion;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ContentVersionServiceTest {
+
+    private static final LocalDateTime POST_UPDATED = LocalDateTime.of(2999, 3, 1, 10, 0);
+
+    private static final LocalDateTime COUNTERS_MODIFIED = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private ContentVersionRepository contentVersionRepository;
+
+    @InjectMocks
+    private ContentVersionService contentVersionService;
+
+    @Test
+    void shouldBuildPostVersionFromPostRowAndSharedCounters() {
+        // Arrange
+        PostRepository.PostVersion post = postVersion(2L, 1);
+        ContentVersion counters = counters(5, 3);
+        when(postRepository.findVersionBySlug("post")).thenReturn(Optional.of(post));
+        when(contentVersionRepository.findById(ContentVersion.ID)).thenReturn(Optional.of(counters));
+
+        // Act
+        ResourceVersion version = contentVersionService.getPostVersion("post", false).orElseThrow();
+
+        // Assert
+        assertThat(version.etag()).startsWith("\"").endsWith("\"");
+        assertThat(version.lastModified()).isEqualTo(POST_UPDATED.atZone(ZoneId.systemDefault()).toInstant());
+        verify(postRepository).findVersionBySlug("post");
+        verifyNoMoreInteractions(postRepository);
+        verify(contentVersionRepository).findById(ContentVersion.ID);
+    }
+
+    @Test
+    void shouldChangeEtagWhenPostVersionOrApprovedCommentsChange() {
+        // Arrange
+        PostRepository.PostVersion original = postVersion(2L, 1);
+        PostRepository.PostVersion retagged = postVersion(3L, 1);
+        PostRepository.PostVersion commented = postVersion(2L, 2);
+        ContentVersion counters = counters(5, 3);
+        when(contentVersionRepository.findById(ContentVersion.ID)).thenReturn(Optional.of(counters));
+        when(postRepository.findVersionById(1L))
+                .thenReturn(Optional.of(original), Optional.of(original), Optional.of(retagged), Optional.of(commented));
+
+        // Act
+        String first = contentVersionService.getPostVersion(1L, false).orElseThrow().etag();
+        String same = contentVersionService.getPostVersion(1L, false).orElseThrow().etag();
+        String afterRetag = contentVersionService.getPostVersion(1L, false).orElseThrow().etag();
+        String afterComment = contentVersionService.getPostVersion(1L, false).orElseThrow().etag();
+
+        // Assert
+        assertThat(same).isEqualTo(first);
+        assertThat(afterRetag).isNotEqualTo(first);
+        assertThat(afterComment).isNotEqualTo(first).isNotEqualTo(afterRetag);
+    }
+
+    @Test
+    void shouldChangePostEtagWithPostsCounterButNotWithCatalogCounter() {
+        // Arrange
+        PostRepository.PostVersion post = postVersion(2L, 1);
+        ContentVersion original = counters(5, 3);
+        ContentVersion otherPostChanged = counters(6, 3);
+        ContentVersion moderated = counters(7, 4);
+        when(postRepository.findVersionById(1L)).thenReturn(Optional.of(post));
+        when(contentVersionRepository.findById(ContentVersion.ID))
+                .thenReturn(Optional.of(original), Optional.of(otherPostChanged), Optional.of(moderated));
+
+        // Act
+        String first = contentVersionService.getPostVersion(1L, false).orElseThrow().etag();
+        String afterOtherPost = contentVersionService.getPostVersion(1L, false).orElseThrow().etag();
+        String afterModeration = contentVersionService.getPostVersion(1L, false).orElseThrow().etag();
+
+        // Assert
+        assertThat(afterOtherPost).isEqualTo(first);
+        assertThat(afterModeration).isNotEqualTo(first);
+    }
+
+    @Test
+    void shouldAdvanceOnlyCatalogCounterOnPostAndRelatedPostEvents() {
+        // Act
+        contentVersionService.onPostChanged(postChanged(7L));
+        contentVersionService.onPostDeleted(new PostDeletedEvent(7L, Set.of()));
+        contentVersionService.onRelatedPostsChanged(new RelatedPostsChangedEvent(Set.of(1L, 7L)));
+
+        // Assert
+        verify(contentVersionRepository, times(3)).advanceCatalog(any(LocalDateTime.class));
+        verify(contentVersionRepository, never()).advanceCatalogAndPosts(any());
+    }
+
+    @Test
+    void shouldAdvanceBothCountersOnCommentAndTagEvents() {
+        // Act
+        contentVersionService.onCommentChanged(new CommentChangedEvent(1L));
+        contentVersionService.onTagCreated(new TagCreatedEvent(3L));
+        contentVersionService.onTagDeleted(new TagDeletedEvent(3L));
+
+        // Assert
+        verify(contentVersionRepository, times(3)).advanceCatalogAndPosts(any(LocalDateTime.class));
+        verify(contentVersionRepository, never()).advanceCatalog(any());
+    }
+
+    @Test
+    void shouldNotProvideValidatorsWhenPendingCommentsAreIncluded() {
+        // Act & Assert
+        assertThat(contentVersionService.getPostVersion("post", true)).isEmpty();
+        verifyNoInteractions(postRepository);
+    }
+
+    @Test
+    void shouldReturnEmptyWhenPostDoesNotExist() {
+        // Arrange
+        when(postRepository.findVersionBySlug("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThat(contentVersionService.getPostVersion("missing", false)).isEmpty();
+    }
+
+    private PostRepository.PostVersion postVersion(Long version, int approvedCommentCount) {
+        PostRepository.PostVersion post = mock(PostRepository.PostVersion.class);
+        when(post.getId()).thenReturn(1L);
+        when(post.getVersion()).thenReturn(version);
+        when(post.getUpdatedAt()).thenReturn(POST_UPDATED);
+        when(post.getApprovedCommentCount()).thenReturn(approvedCommentCount);
+        return post;
+    }
+
+    private static ContentVersion counters(long catalog, long posts) {
+        return new ContentVersion(ContentVersion.ID, catalog, COUNTERS_MODIFIED, posts, COUNTERS_MODIFIED);
+    }
+
+    private static PostChangedEvent postChanged(Long postId) {
+        return new PostChangedEvent(postId, true, false, "Title", null, "Content", Set.of());
+    }
+}
@@ -0,0 +1,198 @@
+package com.raptiye.blog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.raptiye.blog.domain.Post;
+import com.raptiye.blog.domain.Tag;
+import com.raptiye.blog.dto.response.ImportResponse;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.repository.TagRepository;
+import com.raptiye.blog.util.MarkdownService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostImportServiceTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private MarkdownService markdownService;
+
+    @Mock
+    private RelatedPostService relatedPostService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AtomicLong ids = new AtomicLong(100);
+    private PostImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new PostImportService(new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), entityManager, transactionManager,
+                postRepository, tagRepository, markdownService, relatedPostService, eventPublisher,
+                new SimpleMeterRegistry(), 2, 10, 256);
+
+        // Ids come from the sequence when an entity is persisted
+        lenient().doAnswer(invocation -> {
+            Object entity = invocation.getArgument(0);
+            if (entity instanceof Tag tag) {
+                tag.setId(ids.incrementAndGet());
+            } else if (entity instanceof Post post) {
+                post.setId(ids.incrementAndGet());
+            }
+            return null;
+        }).when(entityManager).persist(any());
+        lenient().when(entityManager.getReference(eq(Tag.class), anyLong()))
+                .thenAnswer(invocation -> Tag.builder().id(invocation.getArgument(1)).build());
+    }
+
+    @Test
+    void shouldWriteOneTransactionPerChunkAndCreateEachTagOnce() throws Exception {
+        // Arrange
+        when(tagRepository.findBySlugIn(List.of("java"))).thenReturn(List.of());
+
+        // Act
+        ImportResponse response = importService.importPosts(ndjson(
+                "{\"title\":\"First post\",\"content\":\"One\",\"tags\":[\"Java\"]}",
+                "{\"title\":\"Second post\",\"content\":\"Two\",\"tags\":[\"java\"],"
+                        + "\"comments\":[{\"authorName\":\"Ann\",\"authorEmail\":\"ann@example.com\","
+                        + "\"content\":\"Nice post\",\"approved\":true}]}",
+                "{\"title\":\"Third post\",\"content\":\"Three\",\"tags\":[\"Java\"]}"));
+
+        // Assert
+        assertThat(response.getPosts()).isEqualTo(3);
+        assertThat(response.getComments()).isEqualTo(1);
+        assertThat(response.getTagsCreated()).isEqualTo(1);
+        assertThat(response.getFailed()).isZero();
+        verify(transactionManager, times(2)).commit(any());
+        verify(tagRepository, times(1)).findBySlugIn(anyCollection());
+        verify(entityManager, times(1)).persist(any(Tag.class));
+        verify(eventPublisher, times(3)).publishEvent(any(PostChangedEvent.class));
+        verify(relatedPostService).scheduleRebuild();
+
+        ArgumentCaptor<Post> posts = ArgumentCaptor.forClass(Post.class);
+        verify(entityManager, times(3)).persist(posts.capture());
+        Post second = posts.getAllValues().get(1);
+        assertThat(second.getSlug()).isEqualTo("second-post");
+        assertThat(second.getApprovedCommentCount()).isEqualTo(1);
+        assertThat(second.getComments()).singleElement().satisfies(comment -> assertThat(comment.getPost()).isSameAs(second));
+    }
+
+    @Test
+    void shouldReportInvalidLinesWithTheirNumbers() throws Exception {
+        // Act
+        ImportResponse response = importService.importPosts(ndjson(
+                "{\"title\":\"Valid post\",\"content\":\"Body\"}",
+                "{\"title\": broken",
+                "",
+                "{\"content\":\"No title\"}"));
+
+        // Assert
+        assertThat(response.getLines()).isEqualTo(4);
+        assertThat(response.getPosts()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(ImportResponse.LineError::getLine).containsExactly(2L, 4L);
+        assertThat(response.getErrors().get(1).getMessage()).isEqualTo("title: Title is required");
+        verifyNoInteractions(relatedPostService);
+    }
+
+    @Test
+    void shouldReportOverlongLinesWithoutBufferingThem() throws Exception {
+        // Act
+        ImportResponse response = importService.importPosts(ndjson(
+                "{\"title\":\"Long post\",\"content\":\"" + "x".repeat(100_000) + "\"}",
+                "{\"title\":\"Short post\",\"content\":\"Body\"}\r"));
+
+        // Assert
+        assertThat(response.getLines()).isEqualTo(2);
+        assertThat(response.getPosts()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(1);
+            assertThat(error.getMessage()).isEqualTo("Line is longer than 256 characters");
+        });
+    }
+
+    @Test
+    void shouldSkipPostsWhoseSlugIsTaken() throws Exception {
+        // Arrange
+        when(postRepository.findSlugsIn(anyCollection())).thenReturn(List.of("existing-post"));
+
+        // Act
+        ImportResponse response = importService.importPosts(ndjson(
+                "{\"title\":\"Existing post\",\"content\":\"Body\"}",
+                "{\"title\":\"Existing Post!\",\"content\":\"Body\"}"));
+
+        // Assert
+        assertThat(response.getPosts()).isZero();
+        assertThat(response.getFailed()).isEqualTo(2);
+        assertThat(response.getErrors()).extracting(ImportResponse.LineError::getLine).containsExactly(1L, 2L);
+        verify(entityManager, never()).persist(any(Post.class));
+    }
+
+    @Test
+    void shouldRetryFailedChunkLineByLine() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Post post = invocation.getArgument(0);
+            if (post.getTitle().equals("Bad post")) {
+                throw new DataIntegrityViolationException("posts_slug_key");
+            }
+            return null;
+        }).when(entityManager).persist(any(Post.class));
+
+        // Act
+        ImportResponse response = importService.importPosts(ndjson(
+                "{\"title\":\"Good post\",\"content\":\"Body\"}",
+                "{\"title\":\"Bad post\",\"content\":\"Body\"}"));
+
+        // Assert
+        assertThat(response.getPosts()).isEqualTo(1);
+        assertThat(response.getFailed()).isEqualTo(1);
+        assertThat(response.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(2);
+            assertThat(error.getMessage()).isEqualTo("posts_slug_key");
+        });
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,87 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.dto.response.CursorPageResponse;
+import com.raptiye.blog.dto.response.PostSearchResponse;
+import com.raptiye.blog.search.PostSearchEngine;
+import com.raptiye.blog.util.RankCursor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PostSearchServiceTest {
+
+    @Mock
+    private PostSearchEngine postSearchEngine;
+
+    @InjectMocks
+    private PostSearchService postSearchService;
+
+    @Test
+    void shouldReturnFirstPageOfHits() {
+        // Arrange
+        PostSearchResponse hit = hit(1L, 0.5f, "a <mark>java</mark> post");
+        when(postSearchEngine.search("java", Float.MAX_VALUE, Long.MAX_VALUE, 21))
+                .thenReturn(List.of(hit));
+
+        // Act
+        CursorPageResponse<PostSearchResponse> result = postSearchService.search(" java ", null, 20);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.getContent().get(0).getHeadline()).isEqualTo("a <mark>java</mark> post");
+        assertThat(result.isHasNext()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldReturnCursorOfLastHitWhenMoreResultsExist() {
+        // Arrange
+        PostSearchResponse first = hit(7L, 0.9f, null);
+        PostSearchResponse second = hit(3L, 0.4f, null);
+        when(postSearchEngine.search(eq("java"), anyFloat(), anyLong(), eq(2)))
+                .thenReturn(List.of(first, second));
+
+        // Act
+        CursorPageResponse<PostSearchResponse> result = postSearchService.search("java", null, 1);
+
+        // Assert
+        assertThat(result.getContent()).hasSize(1);
+        assertThat(result.isHasNext()).isTrue();
+        assertThat(RankCursor.decode(result.getNextCursor())).isEqualTo(new RankCursor(0.9f, 7L));
+    }
+
+    @Test
+    void shouldContinueAfterCursor() {
+        // Arrange
+        String cursor = new RankCursor(0.25f, 42L).encode();
+        when(postSearchEngine.search("java", 0.25f, 42L, 21)).thenReturn(List.of());
+
+        // Act
+        CursorPageResponse<PostSearchResponse> result = postSearchService.search("java", cursor, 20);
+
+        // Assert
+        assertThat(result.getContent()).isEmpty();
+        verify(postSearchEngine).search("java", 0.25f, 42L, 21);
+    }
+
+    @Test
+    void shouldRejectBlankQuery() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> postSearchService.search("  ", null, 20));
+        verifyNoInteractions(postSearchEngine);
+    }
+
+    private PostSearchResponse hit(Long id, float rank, String headline) {
+        return PostSearchResponse.builder().id(id).rank(rank).headline(headline).build();
+    }
+}
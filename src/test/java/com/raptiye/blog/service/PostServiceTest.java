@@ -4,26 +4,44 @@ import com.raptiye.blog.domain.Post;
 import com.raptiye.blog.domain.Tag;
 import com.raptiye.blog.dto.request.CreatePostRequest;
 import com.raptiye.blog.dto.request.UpdatePostRequest;
+import com.raptiye.blog.dto.response.CommentResponse;
+import com.raptiye.blog.dto.response.CursorPageResponse;
 import com.raptiye.blog.dto.response.PostDetailResponse;
 import com.raptiye.blog.dto.response.PostResponse;
+import com.raptiye.blog.dto.response.TagResponse;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
 import com.raptiye.blog.exception.ResourceNotFoundException;
 import com.raptiye.blog.mapper.PostMapper;
 import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.repository.RelatedPostRepository;
+import com.raptiye.blog.search.TagBitmapIndex;
+import com.raptiye.blog.util.KeysetCursor;
+import com.raptiye.blog.util.MarkdownService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -39,6 +57,21 @@ class PostServiceTest {
     @Mock
     private PostMapper postMapper;
 
+    @Mock
+    private MarkdownService markdownService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TagBitmapIndex tagBitmapIndex;
+
+    @Mock
+    private RelatedPostRepository relatedPostRepository;
+
+    @Mock
+    private CommentService commentService;
+
     @InjectMocks
     private PostService postService;
 
@@ -118,29 +151,161 @@ class PostServiceTest {
         PostResponse response = new PostResponse();
         response.setId(1L);
 
-        when(postRepository.findByPublishedTrueOrderByCreatedAtDesc())
+        when(postRepository.findByPublishedTrueOrderByCreatedAtDescIdDesc(Limit.of(21)))
                 .thenReturn(Collections.singletonList(post));
-        when(postMapper.toResponse(post)).thenReturn(response);
+        when(postMapper.toResponses(eq(List.of(post)), anyMap())).thenReturn(List.of(response));
 
         // Act
-        var results = postService.getPublishedPosts();
+        var results = postService.getPublishedPosts(null, 20);
+
+        // Assert
+        assertThat(results.getContent()).hasSize(1);
+        assertThat(results.getContent().get(0).getId()).isEqualTo(1L);
+        assertThat(results.isHasNext()).isFalse();
+        assertThat(results.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldReturnNextCursorWhenMorePublishedPostsExist() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 12, 0);
+        Post first = Post.builder().id(2L).published(true).build();
+        Post second = Post.builder().id(1L).published(true).build();
+
+        PostResponse firstResponse = new PostResponse();
+        firstResponse.setId(2L);
+        firstResponse.setCreatedAt(createdAt);
+
+        when(postRepository.findByPublishedTrueOrderByCreatedAtDescIdDesc(Limit.of(2)))
+                .thenReturn(List.of(first, second));
+        when(postMapper.toResponses(eq(List.of(first)), anyMap())).thenReturn(List.of(firstResponse));
+
+        // Act
+        var results = postService.getPublishedPosts(null, 1);
+
+        // Assert
+        assertThat(results.getContent()).hasSize(1);
+        assertThat(results.isHasNext()).isTrue();
+        assertThat(KeysetCursor.decode(results.getNextCursor()))
+                .isEqualTo(new KeysetCursor(createdAt, 2L));
+    }
+
+    @Test
+    void shouldGetPublishedPostsAfterCursor() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2025, 1, 10, 12, 0);
+        String cursor = new KeysetCursor(createdAt, 5L).encode();
+        Post post = Post.builder().id(4L).published(true).build();
+
+        when(postRepository.findPublishedBefore(createdAt, 5L, Limit.of(11)))
+                .thenReturn(List.of(post));
+        when(postMapper.toResponses(eq(List.of(post)), anyMap())).thenReturn(List.of(new PostResponse()));
+
+        // Act
+        var results = postService.getPublishedPosts(cursor, 10);
+
+        // Assert
+        assertThat(results.getContent()).hasSize(1);
+        assertThat(results.isHasNext()).isFalse();
+    }
+
+    @Test
+    void shouldLoadTagsForWholePage() {
+        // Arrange
+        Tag tag = Tag.builder().id(7L).name("Java").build();
+        Post first = Post.builder().id(1L).published(true).build();
+        Post second = Post.builder().id(2L).published(true).build();
+
+        PostRepository.PostTag postTag = mock(PostRepository.PostTag.class);
+        when(postTag.getPostId()).thenReturn(1L);
+        when(postTag.getTag()).thenReturn(tag);
+
+        when(postRepository.findByPublishedTrueOrderByCreatedAtDescIdDesc(Limit.of(21)))
+                .thenReturn(List.of(first, second));
+        when(postRepository.findTagsByPostIds(List.of(1L, 2L))).thenReturn(List.of(postTag));
+        when(postMapper.toResponses(List.of(first, second), Map.of(1L, List.of(tag))))
+                .thenReturn(List.of(new PostResponse(), new PostResponse()));
+
+        // Act
+        var results = postService.getPublishedPosts(null, 20);
+
+        // Assert
+        assertThat(results.getContent()).hasSize(2);
+        verify(postRepository).findTagsByPostIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void shouldFilterPublishedPostsByTagExpression() {
+        // Arrange
+        TagResponse java = new TagResponse();
+        java.setId(1L);
+        java.setSlug("java");
+        TagResponse kotlin = new TagResponse();
+        kotlin.setId(2L);
+        kotlin.setSlug("kotlin");
+        Post newer = Post.builder().id(9L).published(true).build();
+        Post older = Post.builder().id(4L).published(true).build();
+
+        when(tagService.getAllTags()).thenReturn(List.of(java, kotlin));
+        when(tagBitmapIndex.findPublishedPostIds(List.of(1L, -1L), List.of(2L), false, Long.MAX_VALUE, 11))
+                .thenReturn(List.of(9L, 4L));
+        when(postRepository.findAllById(List.of(9L, 4L))).thenReturn(List.of(older, newer));
+        when(postMapper.toResponses(eq(List.of(newer, older)), anyMap()))
+                .thenReturn(List.of(new PostResponse(), new PostResponse()));
+
+        // Act
+        var results = postService.getPublishedPostsByTags(List.of("Java", "missing", "-kotlin"), "any", null, 10);
+
+        // Assert
+        assertThat(results.getContent()).hasSize(2);
+        assertThat(results.isHasNext()).isFalse();
+    }
+
+    @Test
+    void shouldRejectUnknownTagFilterMode() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> postService.getPublishedPostsByTags(List.of("java"), "none", null, 10));
+    }
+
+    @Test
+    void shouldGetRelatedPostsFromPrecomputedTable() {
+        // Arrange
+        Post post = Post.builder().id(1L).slug("post").build();
+        Post related = Post.builder().id(2L).published(true).build();
+
+        when(postRepository.findBySlug("post")).thenReturn(Optional.of(post));
+        when(relatedPostRepository.findPublishedRelatedPosts(1L, Limit.of(RelatedPostService.NEIGHBOURS_PER_POST)))
+                .thenReturn(List.of(related));
+        when(postMapper.toResponses(eq(List.of(related)), anyMap())).thenReturn(List.of(new PostResponse()));
+
+        // Act
+        List<PostResponse> results = postService.getRelatedPosts("post", 50);
 
         // Assert
         assertThat(results).hasSize(1);
-        assertThat(results.get(0).getId()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> postService.getPublishedPosts("not-a-cursor", 10));
     }
 
     @Test
     void shouldGetPostById() {
         // Arrange
         Long id = 1L;
-        Post post = Post.builder().id(id).title("Test Post").build();
+        Post post = Post.builder().id(id).title("Test Post").approvedCommentCount(42).build();
+        CursorPageResponse<CommentResponse> comments = CursorPageResponse.<CommentResponse>builder()
+                .content(List.of()).limit(20).build();
         PostDetailResponse response = new PostDetailResponse();
         response.setId(id);
         response.setTitle("Test Post");
 
         when(postRepository.findById(id)).thenReturn(Optional.of(post));
-        when(postMapper.toDetailResponse(post, false)).thenReturn(response);
+        when(commentService.getCommentsByPostId(id, false, null, 20)).thenReturn(comments);
+        when(postMapper.toDetailResponse(post, comments, 42)).thenReturn(response);
 
         // Act
         PostDetailResponse result = postService.getPostById(id, false);
@@ -149,6 +314,7 @@ class PostServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getId()).isEqualTo(id);
         verify(postRepository).findById(id);
+        verify(commentService, never()).countCommentsByPostId(anyLong());
     }
 
     @Test
@@ -166,15 +332,20 @@ class PostServiceTest {
         // Arrange
         String slug = "test-post";
         Post post = Post.builder().id(1L).slug(slug).build();
+        String cursor = new KeysetCursor(LocalDateTime.of(2024, 5, 1, 12, 0), 7L).encode();
+        CursorPageResponse<CommentResponse> comments = CursorPageResponse.<CommentResponse>builder()
+                .content(List.of()).limit(20).build();
         PostDetailResponse response = new PostDetailResponse();
         response.setId(1L);
         response.setSlug(slug);
 
         when(postRepository.findBySlug(slug)).thenReturn(Optional.of(post));
-        when(postMapper.toDetailResponse(post, false)).thenReturn(response);
+        when(commentService.getCommentsByPostId(1L, true, cursor, 20)).thenReturn(comments);
+        when(commentService.countCommentsByPostId(1L)).thenReturn(3L);
+        when(postMapper.toDetailResponse(post, comments, 3)).thenReturn(response);
 
         // Act
-        PostDetailResponse result = postService.getPostBySlug(slug, false);
+        PostDetailResponse result = postService.getPostBySlug(slug, true, cursor);
 
         // Assert
         assertThat(result.getSlug()).isEqualTo(slug);
@@ -214,19 +385,78 @@ class PostServiceTest {
         // Assert
         assertThat(result.getTitle()).isEqualTo("Updated Title");
         verify(postRepository).save(any(Post.class));
+        verify(eventPublisher).publishEvent(PostChangedEvent.of(updatedPost));
+    }
+
+    @Test
+    void shouldRenderHtmlWhenCreatingPost() {
+        // Arrange
+        CreatePostRequest request = new CreatePostRequest();
+        request.setTitle("New Post");
+        request.setSummary("*summary*");
+        request.setContent("**content**");
+
+        when(markdownService.translateToHtml("*summary*")).thenReturn("<p><em>summary</em></p>");
+        when(markdownService.translateToHtml("**content**")).thenReturn("<p><strong>content</strong></p>");
+        when(markdownService.toExcerpt("**content**")).thenReturn("content");
+        when(postRepository.save(any(Post.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        postService.createPost(request);
+
+        // Assert
+        ArgumentCaptor<Post> captor = ArgumentCaptor.forClass(Post.class);
+        verify(postRepository).save(captor.capture());
+        assertThat(captor.getValue().getSummaryHtml()).isEqualTo("<p><em>summary</em></p>");
+        assertThat(captor.getValue().getContentHtml()).isEqualTo("<p><strong>content</strong></p>");
+        assertThat(captor.getValue().getExcerpt()).isEqualTo("content");
+    }
+
+    @Test
+    void shouldOnlyRenderChangedMarkdownWhenUpdatingPost() {
+        // Arrange
+        Long id = 1L;
+        UpdatePostRequest request = new UpdatePostRequest();
+        request.setSummary("Same summary");
+        request.setContent("New content");
+
+        Post existingPost = Post.builder()
+                .id(id)
+                .summary("Same summary")
+                .summaryHtml("<p>Same summary</p>")
+                .content("Old content")
+                .contentHtml("<p>Old content</p>")
+                .build();
+
+        when(postRepository.findById(id)).thenReturn(Optional.of(existingPost));
+        when(markdownService.translateToHtml("New content")).thenReturn("<p>New content</p>");
+        when(markdownService.toExcerpt("New content")).thenReturn("New content");
+        when(postRepository.save(existingPost)).thenReturn(existingPost);
+
+        // Act
+        postService.updatePost(id, request);
+
+        // Assert
+        assertThat(existingPost.getContentHtml()).isEqualTo("<p>New content</p>");
+        assertThat(existingPost.getExcerpt()).isEqualTo("New content");
+        assertThat(existingPost.getSummaryHtml()).isEqualTo("<p>Same summary</p>");
+        verify(markdownService, never()).translateToHtml("Same summary");
     }
 
     @Test
     void shouldDeletePost() {
         // Arrange
         Long id = 1L;
-        when(postRepository.existsById(id)).thenReturn(true);
+        Post post = Post.builder().id(id).title("Post").build();
+        post.addTag(Tag.builder().id(2L).name("Java").build());
+        when(postRepository.findById(id)).thenReturn(Optional.of(post));
 
         // Act
         postService.deletePost(id);
 
         // Assert
-        verify(postRepository).deleteById(id);
+        verify(postRepository).delete(post);
+        verify(eventPublisher).publishEvent(new PostDeletedEvent(id, Set.of(2L)));
     }
 
     @Test
@@ -278,7 +508,7 @@ class PostServiceTest {
         PostResponse response = new PostResponse();
         response.setId(1L);
 
-        when(postRepository.findPublishedPostResponsesWithSnippet(350))
+        when(postRepository.findPublishedPostExcerpts())
                 .thenReturn(List.of(response));
 
         // Act
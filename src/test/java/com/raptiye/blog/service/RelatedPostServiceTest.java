@@ -0,0 +1,269 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.domain.RelatedPost;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.PostDeletedEvent;
+import com.raptiye.blog.event.PostTagsChangedEvent;
+import com.raptiye.blog.event.RelatedPostsChangedEvent;
+import com.raptiye.blog.event.TagDeletedEvent;
+import com.raptiye.blog.repository.PostRepository;
+import com.raptiye.blog.repository.RelatedPostRepository;
+import com.raptiye.blog.repository.TagRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RelatedPostServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private TagRepository tagRepository;
+
+    @Mock
+    private RelatedPostRepository relatedPostRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private RelatedPostService relatedPostService;
+
+    @Test
+    void shouldRankByWeightedJaccardSimilarity() {
+        // Arrange
+        Map<Long, Set<Long>> tagsByPost = Map.of(
+                1L, Set.of(10L, 20L),
+                2L, Set.of(10L, 20L),
+                3L, Set.of(10L),
+                4L, Set.of(30L));
+        Map<Long, Double> weights = Map.of(10L, 1.0, 20L, 1.0, 30L, 1.0);
+
+        // Act
+        List<RelatedPost> rows = RelatedPostService.computeNeighbours(tagsByPost, weights, List.of(1L));
+
+        // Assert
+        assertThat(rows).extracting(RelatedPost::getRelatedPostId).containsExactly(2L, 3L);
+        assertThat(rows).extracting(RelatedPost::getScore).containsExactly(1.0f, 0.5f);
+    }
+
+    @Test
+    void shouldFavourPostsSharingRareTags() {
+        // Arrange
+        Map<Long, Set<Long>> tagsByPost = Map.of(
+                1L, Set.of(10L, 20L),
+                2L, Set.of(10L),
+                3L, Set.of(20L));
+        Map<Long, Double> weights = Map.of(10L, 0.2, 20L, 2.0);
+
+        // Act
+        List<RelatedPost> rows = RelatedPostService.computeNeighbours(tagsByPost, weights, List.of(1L));
+
+        // Assert
+        assertThat(rows).extracting(RelatedPost::getRelatedPostId).containsExactly(3L, 2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRecomputeChangedPostAndPostsSharingItsTags() {
+        // Arrange
+        List<PostRepository.PostTagId> seedTags = List.of(row(1L, 10L), row(5L, 30L));
+        List<PostRepository.PostTagId> candidateTags = List.of(row(1L, 10L), row(2L, 10L), row(5L, 30L), row(6L, 30L));
+        List<TagRepository.TagUsage> usages = List.of(usage(10L, 2), usage(30L, 2));
+
+        when(relatedPostRepository.findPostIdsRelatedTo(Set.of(1L))).thenReturn(List.of(5L));
+        when(postRepository.findTagIdsByPostIds(Set.of(1L, 5L))).thenReturn(seedTags);
+        when(postRepository.findTagIdsOfPublishedPostsTaggedWith(Set.of(10L, 30L))).thenReturn(candidateTags);
+        when(postRepository.countByPublishedTrue()).thenReturn(4L);
+        when(tagRepository.findPublishedPostCountsByTag()).thenReturn(usages);
+
+        // Act
+        relatedPostService.recompute(Set.of(1L), Set.of());
+
+        // Assert
+        ArgumentCaptor<Collection<Long>> affected = ArgumentCaptor.forClass(Collection.class);
+        verify(relatedPostRepository).deleteByPostIds(affected.capture());
+        assertThat(affected.getValue()).containsExactlyInAnyOrder(1L, 2L, 5L);
+
+        ArgumentCaptor<List<RelatedPost>> saved = ArgumentCaptor.forClass(List.class);
+        verify(relatedPostRepository).saveAll(saved.capture());
+        assertThat(saved.getValue())
+                .extracting(row -> row.getPostId() + "->" + row.getRelatedPostId())
+                .containsExactlyInAnyOrder("1->2", "2->1", "5->6");
+        verify(eventPublisher).publishEvent(new RelatedPostsChangedEvent(Set.of(1L, 2L, 5L)));
+    }
+
+    @Test
+    void shouldSkipSimilarityWhenPostHasNoTags() {
+        // Arrange
+        when(relatedPostRepository.findPostIdsRelatedTo(Set.of(1L))).thenReturn(List.of());
+        when(postRepository.findTagIdsByPostIds(Set.of(1L))).thenReturn(List.of());
+
+        // Act
+        relatedPostService.recompute(Set.of(1L), Set.of());
+
+        // Assert
+        verify(relatedPostRepository).deleteByPostIds(Set.of(1L));
+        verify(postRepository, never()).findTagIdsOfPublishedPostsTaggedWith(anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRecomputePostsThatSharedTagsWithDeletedPost() {
+        // Arrange: post 1 was deleted; post 2 listed it and also carries tag 40, shared with post 3
+        List<PostRepository.PostTagId> sharingTags = List.of(row(2L, 10L), row(2L, 40L));
+        List<PostRepository.PostTagId> candidateTags = List.of(row(2L, 10L), row(2L, 40L), row(3L, 40L));
+        List<TagRepository.TagUsage> usages = List.of(usage(10L, 1), usage(40L, 2));
+
+        when(postRepository.findTagIdsOfPublishedPostsTaggedWith(Set.of(10L))).thenReturn(sharingTags);
+        when(postRepository.findTagIdsOfPublishedPostsTaggedWith(Set.of(10L, 40L))).thenReturn(candidateTags);
+        when(postRepository.countByPublishedTrue()).thenReturn(2L);
+        when(tagRepository.findPublishedPostCountsByTag()).thenReturn(usages);
+
+        // Act
+        relatedPostService.recompute(Set.of(), Set.of(10L));
+
+        // Assert
+        verify(relatedPostRepository).deleteByPostIds(Set.of(2L));
+        ArgumentCaptor<List<RelatedPost>> saved = ArgumentCaptor.forClass(List.class);
+        verify(relatedPostRepository).saveAll(saved.capture());
+        assertThat(saved.getValue())
+                .extracting(row -> row.getPostId() + "->" + row.getRelatedPostId())
+                .containsExactly("2->3");
+        verify(eventPublisher).publishEvent(new RelatedPostsChangedEvent(Set.of(2L)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldDropUnpublishedPostFromNeighbourLists() {
+        // Arrange: post 1 was unpublished; post 2 listed it and shares tag 40 with post 3
+        List<PostRepository.PostTagId> seedTags = List.of(row(1L, 10L), row(2L, 10L), row(2L, 40L));
+        List<PostRepository.PostTagId> candidateTags = List.of(row(2L, 10L), row(2L, 40L), row(3L, 40L));
+        List<TagRepository.TagUsage> usages = List.of(usage(10L, 1), usage(40L, 2));
+
+        when(relatedPostRepository.findPostIdsRelatedTo(Set.of(1L))).thenReturn(List.of(2L));
+        when(postRepository.findTagIdsByPostIds(Set.of(1L, 2L))).thenReturn(seedTags);
+        when(postRepository.findTagIdsOfPublishedPostsTaggedWith(Set.of(10L, 40L))).thenReturn(candidateTags);
+        when(postRepository.countByPublishedTrue()).thenReturn(2L);
+        when(tagRepository.findPublishedPostCountsByTag()).thenReturn(usages);
+
+        // Act
+        relatedPostService.recompute(Set.of(1L), Set.of());
+
+        // Assert
+        verify(relatedPostRepository).deleteByPostIds(Set.of(1L, 2L));
+        ArgumentCaptor<List<RelatedPost>> saved = ArgumentCaptor.forClass(List.class);
+        verify(relatedPostRepository).saveAll(saved.capture());
+        assertThat(saved.getValue())
+                .extracting(row -> row.getPostId() + "->" + row.getRelatedPostId())
+                .containsExactly("2->3");
+    }
+
+    @Test
+    void shouldIgnorePostChangesThatKeepPublishedState() {
+        // Act
+        relatedPostService.onPostChanged(new PostChangedEvent(1L, true, false, "t", "s", "c", Set.of(10L)));
+
+        // Assert
+        verifyNoInteractions(relatedPostRepository, postRepository, transactionTemplate);
+    }
+
+    @Test
+    void shouldRefreshOffTheCallingThreadAndCoalescePendingChanges() throws Exception {
+        // Arrange: the first refresh holds the thread while two more posts change
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch secondDone = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        List<Collection<Long>> refreshed = new CopyOnWriteArrayList<>();
+        when(relatedPostRepository.findPostIdsRelatedTo(anyCollection())).thenAnswer(invocation -> {
+            refreshed.add(Set.copyOf(invocation.<Collection<Long>>getArgument(0)));
+            return List.of();
+        });
+        doAnswer(invocation -> {
+            threads.add(Thread.currentThread());
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            if (runs.incrementAndGet() == 1) {
+                firstStarted.countDown();
+                releaseFirst.await();
+            } else {
+                secondDone.countDown();
+            }
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // Act
+        relatedPostService.onPostTagsChanged(new PostTagsChangedEvent(1L, Set.of(10L)));
+        assertThat(firstStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        relatedPostService.onPostTagsChanged(new PostTagsChangedEvent(2L, Set.of(10L)));
+        relatedPostService.onPostDeleted(new PostDeletedEvent(3L, Set.of(30L)));
+        relatedPostService.onPostTagsChanged(new PostTagsChangedEvent(4L, Set.of(10L)));
+        releaseFirst.countDown();
+
+        // Assert
+        assertThat(secondDone.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(runs).hasValue(2);
+        assertThat(threads).doesNotContain(Thread.currentThread());
+        assertThat(refreshed).containsExactly(Set.of(1L), Set.of(2L, 4L));
+    }
+
+    @Test
+    void shouldRebuildOffTheCallingThreadWhenTagIsDeleted() throws Exception {
+        // Arrange
+        CountDownLatch rebuilt = new CountDownLatch(1);
+        Thread caller = Thread.currentThread();
+        doAnswer(invocation -> {
+            assertThat(Thread.currentThread()).isNotSameAs(caller);
+            rebuilt.countDown();
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        // Act
+        relatedPostService.onTagDeleted(new TagDeletedEvent(10L));
+
+        // Assert
+        assertThat(rebuilt.await(5, TimeUnit.SECONDS)).isTrue();
+        verifyNoInteractions(relatedPostRepository);
+    }
+
+    private PostRepository.PostTagId row(Long postId, Long tagId) {
+        PostRepository.PostTagId row = mock(PostRepository.PostTagId.class);
+        when(row.getPostId()).thenReturn(postId);
+        when(row.getTagId()).thenReturn(tagId);
+        return row;
+    }
+
+    private TagRepository.TagUsage usage(Long tagId, long postCount) {
+        TagRepository.TagUsage usage = mock(TagRepository.TagUsage.class);
+        when(usage.getTagId()).thenReturn(tagId);
+        when(usage.getPostCount()).thenReturn(postCount);
+        return usage;
+    }
+}
@@ -3,6 +3,7 @@ package com.raptiye.blog.service;
 import com.raptiye.blog.domain.Tag;
 import com.raptiye.blog.dto.request.CreateTagRequest;
 import com.raptiye.blog.dto.response.TagResponse;
+import com.raptiye.blog.event.TagDeletedEvent;
 import com.raptiye.blog.exception.ResourceNotFoundException;
 import com.raptiye.blog.mapper.TagMapper;
 import com.raptiye.blog.repository.TagRepository;
@@ -11,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Collections;
 import java.util.Optional;
@@ -29,6 +31,9 @@ class TagServiceTest {
     @Mock
     private TagMapper tagMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TagService tagService;
 
@@ -40,8 +45,12 @@ class TagServiceTest {
         response.setId(1L);
         response.setName("Java");
 
-        when(tagRepository.findAll()).thenReturn(Collections.singletonList(tag));
-        when(tagMapper.toResponse(tag)).thenReturn(response);
+        TagRepository.TagPostCount row = mock(TagRepository.TagPostCount.class);
+        when(row.getTag()).thenReturn(tag);
+        when(row.getPostCount()).thenReturn(3L);
+
+        when(tagRepository.findAllWithPublishedPostCount()).thenReturn(Collections.singletonList(row));
+        when(tagMapper.toResponse(tag, 3L)).thenReturn(response);
 
         // Act
         var results = tagService.getAllTags();
@@ -61,7 +70,8 @@ class TagServiceTest {
         response.setSlug(slug);
 
         when(tagRepository.findBySlug(slug)).thenReturn(Optional.of(tag));
-        when(tagMapper.toResponse(tag)).thenReturn(response);
+        when(tagRepository.countPublishedPostsByTagId(1L)).thenReturn(2L);
+        when(tagMapper.toResponse(tag, 2L)).thenReturn(response);
 
         // Act
         TagResponse result = tagService.getTagBySlug(slug);
@@ -89,7 +99,8 @@ class TagServiceTest {
         response.setId(id);
 
         when(tagRepository.findById(id)).thenReturn(Optional.of(tag));
-        when(tagMapper.toResponse(tag)).thenReturn(response);
+        when(tagRepository.countPublishedPostsByTagId(id)).thenReturn(0L);
+        when(tagMapper.toResponse(tag, 0L)).thenReturn(response);
 
         // Act
         TagResponse result = tagService.getTagById(id);
@@ -122,7 +133,7 @@ class TagServiceTest {
 
         when(tagRepository.existsByName(request.getName())).thenReturn(false);
         when(tagRepository.save(any(Tag.class))).thenReturn(savedTag);
-        when(tagMapper.toResponse(savedTag)).thenReturn(response);
+        when(tagMapper.toResponse(savedTag, 0)).thenReturn(response);
 
         // Act
         TagResponse result = tagService.createTag(request);
@@ -156,6 +167,7 @@ class TagServiceTest {
 
         // Assert
         verify(tagRepository).deleteById(id);
+        verify(eventPublisher).publishEvent(new TagDeletedEvent(id));
     }
 
     @Test
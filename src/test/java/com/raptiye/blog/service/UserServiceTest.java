@@ -0,0 +1,93 @@
+package com.raptiye.blog.service;
+
+import com.raptiye.blog.domain.Role;
+import com.raptiye.blog.domain.User;
+import com.raptiye.blog.dto.response.UserResponse;
+import com.raptiye.blog.event.UserTokensRevokedEvent;
+import com.raptiye.blog.exception.ResourceNotFoundException;
+import com.raptiye.blog.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @InjectMocks
+    private UserService userService;
+
+    @Test
+    void shouldRevokeTokensWhenRoleChanges() {
+        // Arrange
+        User user = User.builder().id(1L).username("bob").email("bob@example.com").role(Role.USER).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        UserResponse result = userService.changeRole(1L, Role.ADMIN);
+
+        // Assert
+        assertThat(result.getRole()).isEqualTo("ADMIN");
+        assertThat(user.getTokenVersion()).isEqualTo(1);
+        verify(userRepository).save(user);
+        verify(eventPublisher).publishEvent(new UserTokensRevokedEvent(1L));
+    }
+
+    @Test
+    void shouldKeepTokensWhenRoleIsUnchanged() {
+        // Arrange
+        User user = User.builder().id(1L).username("bob").email("bob@example.com").role(Role.ADMIN).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        userService.changeRole(1L, Role.ADMIN);
+
+        // Assert
+        assertThat(user.getTokenVersion()).isZero();
+        verify(userRepository, never()).save(any(User.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void shouldRevokeRefreshTokensWhenRevokingTokens() {
+        // Arrange
+        User user = User.builder().id(1L).username("bob").email("bob@example.com").role(Role.USER).build();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        // Act
+        userService.revokeTokens(1L);
+
+        // Assert
+        assertThat(user.getTokenVersion()).isEqualTo(1);
+        verify(refreshTokenService).revokeAllForUser(1L);
+        verify(eventPublisher).publishEvent(new UserTokensRevokedEvent(1L));
+    }
+
+    @Test
+    void shouldThrowWhenRevokingTokensOfUnknownUser() {
+        // Arrange
+        when(userRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> userService.revokeTokens(99L));
+        verifyNoInteractions(eventPublisher, refreshTokenService);
+    }
+}
@@ -0,0 +1,64 @@
+package com.raptiye.blog.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MarkdownServiceTest {
+
+    private MeterRegistry meterRegistry;
+    private MarkdownService markdownService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        markdownService = new MarkdownService(meterRegistry, 1024 * 1024);
+    }
+
+    @Test
+    void shouldRenderAndSanitizeMarkdown() {
+        String html = markdownService.translateToHtml("## Title\n\n**bold**\n\n<script>alert(1)</script>");
+
+        assertThat(html).contains("<h2>Title</h2>");
+        assertThat(html).contains("<strong>bold</strong>");
+        assertThat(html).doesNotContain("<script>");
+    }
+
+    @Test
+    void shouldReturnEmptyStringForBlankInput() {
+        assertThat(markdownService.translateToHtml(null)).isEmpty();
+        assertThat(markdownService.translateToHtml("   ")).isEmpty();
+    }
+
+    @Test
+    void shouldServeRepeatedContentFromCache() {
+        String first = markdownService.translateToHtml("Some *content*");
+        String second = markdownService.translateToHtml("Some *content*");
+
+        assertThat(second).isSameAs(first);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "markdownHtml").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "markdownHtml").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void shouldBuildPlainTextExcerpt() {
+        String excerpt = markdownService.toExcerpt("## Heading\n\nSome **bold** and [a link](https://example.com).\n\n<b>raw</b>");
+
+        assertThat(excerpt).isEqualTo("Heading Some bold and a link. raw");
+    }
+
+    @Test
+    void shouldCutLongExcerptAtWordBoundary() {
+        String markdown = "word ".repeat(200);
+
+        String excerpt = markdownService.toExcerpt(markdown);
+
+        assertThat(excerpt).hasSizeLessThanOrEqualTo(MarkdownService.EXCERPT_MAX_LENGTH + 1);
+        assertThat(excerpt).endsWith("word…");
+    }
+}
@@ -0,0 +1,236 @@
+package com.raptiye.blog.web;
+
+import com.raptiye.blog.event.CommentChangedEvent;
+import com.raptiye.blog.event.PostChangedEvent;
+import com.raptiye.blog.event.RelatedPostsChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageCacheFilterTest {
+
+    private PageCache pageCache;
+    private PageCacheFilter filter;
+    private AtomicInteger renders;
+
+    @BeforeEach
+    void setUp() {
+        pageCache = new PageCache(new SimpleMeterRegistry(), 1024 * 1024);
+        filter = new PageCacheFilter(pageCache);
+        renders = new AtomicInteger();
+    }
+
+    @Test
+    void shouldServeSecondRequestFromCache() throws Exception {
+        // Arrange
+        get("/post/hello", null);
+
+        // Act
+        MockHttpServletResponse response = get("/post/hello", null);
+
+        // Assert
+        assertThat(renders.get()).isEqualTo(1);
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("<p>hello #1</p>");
+        assertThat(response.getHeader("ETag")).isEqualTo("\"v1\"");
+        assertThat(response.getHeader("Content-Encoding")).isNull();
+    }
+
+    @Test
+    void shouldServePreCompressedBodyWhenClientAcceptsGzip() throws Exception {
+        // Arrange
+        get("/post/hello", null);
+
+        // Act
+        MockHttpServletResponse response = get("/post/hello", "gzip, deflate");
+
+        // Assert
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(response.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(gunzip(response.getContentAsByteArray())).isEqualTo("<p>hello #1</p>");
+    }
+
+    @Test
+    void shouldAnswerNotModifiedFromCachedEtag() throws Exception {
+        // Arrange
+        get("/post/hello", null);
+        MockHttpServletRequest request = request("/post/hello", null);
+        request.addHeader("If-None-Match", "\"v1\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, chain());
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(renders.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldDropOnlyPagesShowingTheChangedPost() throws Exception {
+        // Arrange
+        get("/post/hello", null);
+        get("/post/other", null);
+        get("/", null);
+
+        // Act
+        pageCache.onCommentChanged(new CommentChangedEvent(1L));
+        get("/post/hello", null);
+        get("/post/other", null);
+        get("/", null);
+
+        // Assert
+        assertThat(renders.get()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldDropListingsAndRelatedPagesWhenPostChanges() throws Exception {
+        // Arrange
+        get("/post/hello", null);
+        get("/post/other", null);
+        get("/", null);
+
+        // Act
+        pageCache.onPostChanged(new PostChangedEvent(1L, true, false, "t", "s", "c", Set.of()));
+        pageCache.onRelatedPostsChanged(new RelatedPostsChangedEvent(Set.of(3L)));
+        get("/post/hello", null);
+        get("/post/other", null);
+        get("/", null);
+
+        // Assert
+        assertThat(renders.get()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldNotStorePageRenderedDuringInvalidation() throws Exception {
+        // Arrange
+        MockFilterChain racingChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                render(req, resp);
+                pageCache.onCommentChanged(new CommentChangedEvent(1L));
+            }
+        });
+        filter.doFilter(request("/post/hello", null), new MockHttpServletResponse(), racingChain);
+
+        // Act
+        get("/post/hello", null);
+
+        // Assert
+        assertThat(renders.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldBypassCacheForAuthenticatedRequests() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = request("/post/hello", null);
+        request.addHeader("Authorization", "Bearer token");
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain());
+        filter.doFilter(request, new MockHttpServletResponse(), chain());
+
+        // Assert
+        assertThat(renders.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldKeyPagesByTheirCursorOnly() throws Exception {
+        // Arrange
+        get("/", null, "cursor", "abc");
+
+        // Act
+        MockHttpServletResponse cached = get("/", null, "cursor", "abc");
+        get("/", null, "cursor", "def");
+
+        // Assert
+        assertThat(cached.getContentAsString()).isEqualTo("<p> #1</p>");
+        assertThat(renders.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldBypassCacheForUnknownQueryParameters() throws Exception {
+        // Act
+        get("/post/hello", null, "x", "random");
+        get("/post/hello", null, "x", "random");
+        get("/", null, "comments", "abc");
+        get("/", null, "comments", "abc");
+        MockHttpServletResponse fresh = get("/post/hello", null);
+
+        // Assert
+        assertThat(renders.get()).isEqualTo(5);
+        assertThat(fresh.getContentAsString()).isEqualTo("<p>hello #5</p>");
+    }
+
+    private MockHttpServletResponse get(String path, String acceptEncoding, String parameter, String value)
+            throws Exception {
+        MockHttpServletRequest request = request(path, acceptEncoding);
+        request.setQueryString(parameter + "=" + value);
+        request.addParameter(parameter, value);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain());
+        return response;
+    }
+
+    private MockHttpServletResponse get(String path, String acceptEncoding) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, acceptEncoding), response, chain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String path, String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return request;
+    }
+
+    private MockFilterChain chain() {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                render(req, resp);
+            }
+        });
+    }
+
+    // Post 1 is "hello", post 2 is "other" listing post 3 as related; "/" is the listing
+    private void render(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        int render = renders.incrementAndGet();
+        ServletWebRequest webRequest = new ServletWebRequest(req, resp);
+        switch (req.getRequestURI()) {
+            case "/" -> PageCache.dependOnAllPosts(webRequest);
+            case "/post/hello" -> PageCache.dependOnPosts(webRequest, List.of(1L));
+            default -> PageCache.dependOnPosts(webRequest, List.of(2L, 3L));
+        }
+        resp.setContentType("text/html;charset=UTF-8");
+        resp.setHeader("ETag", "\"v1\"");
+        resp.getWriter().write("<p>" + req.getRequestURI().substring(req.getRequestURI().lastIndexOf('/') + 1)
+                + " #" + render + "</p>");
+    }
+
+    private String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
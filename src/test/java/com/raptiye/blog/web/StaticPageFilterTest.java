@@ -0,0 +1,132 @@
+package com.raptiye.blog.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StaticPageFilterTest {
+
+    @Mock
+    private StaticSiteExporter exporter;
+
+    @TempDir
+    private Path root;
+
+    private StaticPageFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new StaticPageFilter(exporter);
+    }
+
+    @Test
+    void shouldServeExportedPostPage() throws Exception {
+        // Arrange
+        Path file = Files.writeString(root.resolve("hello.html"), "<p>hello</p>");
+        when(exporter.postFile("hello")).thenReturn(file);
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/post/hello"), response, chain);
+
+        // Assert
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("<p>hello</p>");
+        assertThat(response.getContentType()).isEqualTo("text/html;charset=UTF-8");
+        assertThat(response.getHeader("ETag")).isNotNull();
+    }
+
+    @Test
+    void shouldSendTheOpenedVersionWhenPageIsReplacedAfterwards() throws Exception {
+        // Arrange
+        Path file = Files.writeString(root.resolve("index.html"), "<p>home</p>");
+        when(exporter.homeFile()).thenReturn(file);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public void setContentLengthLong(long length) {
+                super.setContentLengthLong(length);
+                try {
+                    Path next = Files.writeString(root.resolve("index.html.tmp"), "<p>new home page</p>");
+                    Files.move(next, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        // Act
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+        assertThat(response.getContentLengthLong()).isEqualTo(11L);
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("<p>home</p>");
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForCurrentEtag() throws Exception {
+        // Arrange
+        Path file = Files.writeString(root.resolve("hello.html"), "<p>hello</p>");
+        when(exporter.postFile("hello")).thenReturn(file);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/post/hello"), first, new MockFilterChain());
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/post/hello");
+        request.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // Act
+        filter.doFilter(request, response, new MockFilterChain());
+
+        // Assert
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void shouldFallThroughWhenPageIsNotExported() throws Exception {
+        // Arrange
+        when(exporter.postFile("missing")).thenReturn(root.resolve("missing.html"));
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(new MockHttpServletRequest("GET", "/post/missing"), new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void shouldLeavePagedHomeToDynamicRendering() throws Exception {
+        // Arrange
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setQueryString("cursor=abc");
+        MockFilterChain chain = new MockFilterChain();
+
+        // Act
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        // Assert
+        assertThat(chain.getRequest()).isNotNull();
+        verifyNoInteractions(exporter);
+    }
+}
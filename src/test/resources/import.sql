@@ -0,0 +1,2 @@
+-- Row that V18 inserts; the test profile builds its schema from the entities instead of Flyway
+INSERT INTO content_version (id, catalog, catalog_modified, posts, posts_modified) VALUES (1, 0, LOCALTIMESTAMP, 0, LOCALTIMESTAMP);